@@ -0,0 +1,38 @@
+package com.keyframecamera;
+
+import java.util.Random;
+
+/**
+ * Reproducible sequences for the benchmarks: the same size and seed always
+ * give the same keyframes.
+ */
+final class BenchmarkSequences
+{
+	static final long SEED = 42;
+
+	private BenchmarkSequences()
+	{
+	}
+
+	static Sequence create(int size, InterpolationMode interpolation)
+	{
+		Random random = new Random(SEED);
+		Sequence sequence = new Sequence(HeadlessClient.create(), new HeadlessConfig(false));
+		sequence.setInterpolation(interpolation);
+		sequence.setBaseX(3200);
+		sequence.setBaseZ(3200);
+
+		// Everything but BEZIER, which needs a curve
+		EaseType[] eases = EaseType.values();
+		long timestamp = 0;
+		for (int i = 0; i < size; i++)
+		{
+			sequence.add(timestamp,
+				random.nextDouble() * 13312, random.nextDouble() * -1000, random.nextDouble() * 13312,
+				random.nextDouble() * Math.PI / 2, random.nextDouble() * 2 * Math.PI,
+				random.nextInt(1000), eases[random.nextInt(eases.length - 1)]);
+			timestamp += 100 + random.nextInt(1900);
+		}
+		return sequence;
+	}
+}
@@ -0,0 +1,67 @@
+package com.keyframecamera;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Easing and interpolating a single segment, for each easing type.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EaseBenchmark
+{
+	// Not a multiple of anything the tables are sampled at
+	private static final double STEP = 1 / 977.0;
+
+	@Param
+	public EaseType ease;
+
+	private Sequence sequence;
+	private final CameraSample sample = new CameraSample();
+	private double t;
+
+	@Setup
+	public void setUp()
+	{
+		sequence = new Sequence(HeadlessClient.create(), new HeadlessConfig(false));
+		sequence.add(0, 0, 0, 0, 0, 0, 0, ease, BezierEase.of(0.42, 0, 0.58, 1));
+		sequence.add(1000, 1280, -200, 640, 0.5, 3, 600, EaseType.LINEAR);
+	}
+
+	private double nextT()
+	{
+		t += STEP;
+		if (t > 1)
+		{
+			t -= 1;
+		}
+		return t;
+	}
+
+	@Benchmark
+	public double calculateEasing()
+	{
+		return Ease.calculateEasing(sequence, 0, nextT());
+	}
+
+	@Benchmark
+	public CameraSample interpolate()
+	{
+		Ease.interpolate(sequence, 0, nextT(), sample);
+		return sample;
+	}
+}
@@ -0,0 +1,65 @@
+package com.keyframecamera;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One {@link Playback#tick()} per frame of a looping sequence against a
+ * {@link HeadlessClient}. The clock is simulated and advances one 60 fps frame
+ * per tick, so every run visits the same sample times.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PlaybackBenchmark
+{
+	private static final long FRAME_NANOS = 1_000_000_000L / 60;
+
+	@Param({"10", "1000"})
+	public int size;
+
+	@Param({"false", "true"})
+	public boolean bake;
+
+	@Param({"LINEAR", "CATMULL_ROM"})
+	public InterpolationMode interpolation;
+
+	@Param({"false", "true"})
+	public boolean constantSpeed;
+
+	private Playback playback;
+	private long now;
+
+	@Setup
+	public void setUp()
+	{
+		Sequence sequence = BenchmarkSequences.create(size, interpolation);
+		sequence.setConstantSpeed(constantSpeed);
+
+		HeadlessPlugin plugin = new HeadlessPlugin();
+		plugin.setSequence(sequence);
+		playback = new Playback(plugin, new HeadlessConfig(bake), HeadlessClient.create(), new HeadlessClientThread(), () -> now);
+		playback.play();
+	}
+
+	@Benchmark
+	public int tick()
+	{
+		now += FRAME_NANOS;
+		playback.tick();
+		return playback.getCurrentKeyframeIndex();
+	}
+}
@@ -0,0 +1,76 @@
+package com.keyframecamera;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Editing a sequence of each size. Every benchmark leaves the sequence the
+ * size it started, so the numbers don't drift over an iteration: adding is
+ * measured together with removing the last keyframe again, and removing
+ * from the middle together with adding one back at the end. Each added
+ * keyframe takes a new handle, so the sequence is rebuilt every iteration to
+ * keep the handle table from growing across the whole run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SequenceEditBenchmark
+{
+	@Param({"10", "1000", "100000"})
+	public int size;
+
+	private Sequence sequence;
+	private int middle;
+	private long duration;
+
+	@Setup(Level.Iteration)
+	public void setUp()
+	{
+		sequence = BenchmarkSequences.create(size, InterpolationMode.LINEAR);
+		middle = size / 2;
+	}
+
+	@Benchmark
+	public int add()
+	{
+		int index = sequence.add(sequence.getSequenceDuration() + 500, 1, 2, 3, 0.5, 1, 500, EaseType.SINE);
+		sequence.remove(sequence.get(index));
+		return index;
+	}
+
+	@Benchmark
+	public int remove()
+	{
+		sequence.remove(sequence.get(middle));
+		return sequence.add(sequence.getSequenceDuration() + 500, 1, 2, 3, 0.5, 1, 500, EaseType.SINE);
+	}
+
+	@Benchmark
+	public int swap()
+	{
+		sequence.swap(sequence.get(middle - 1), sequence.get(middle));
+		return sequence.getVersion();
+	}
+
+	@Benchmark
+	public long setKeyframeDuration()
+	{
+		duration = duration == 500 ? 1500 : 500;
+		sequence.setKeyframeDuration(sequence.get(middle), duration);
+		return sequence.getSequenceDuration();
+	}
+}
@@ -0,0 +1,75 @@
+package com.keyframecamera;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encoding and decoding whole sequences in memory, so disk speed doesn't
+ * enter into it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SequenceIOBenchmark
+{
+	@Param({"10", "1000", "100000"})
+	public int size;
+
+	private Sequence sequence;
+	private ByteBuffer binary;
+	private String text;
+
+	@Setup
+	public void setUp() throws IOException
+	{
+		sequence = BenchmarkSequences.create(size, InterpolationMode.LINEAR);
+		binary = SequenceIO.serializeBinary(sequence);
+		StringWriter writer = new StringWriter();
+		SequenceIO.write(sequence, writer);
+		text = writer.toString();
+	}
+
+	@Benchmark
+	public ByteBuffer serializeBinary()
+	{
+		return SequenceIO.serializeBinary(sequence);
+	}
+
+	@Benchmark
+	public Sequence deserializeBinary() throws IOException
+	{
+		return SequenceIO.deserializeBinary(binary.duplicate(), null, null);
+	}
+
+	@Benchmark
+	public StringWriter writeText() throws IOException
+	{
+		StringWriter writer = new StringWriter(text.length());
+		SequenceIO.write(sequence, writer);
+		return writer;
+	}
+
+	@Benchmark
+	public Sequence readText() throws IOException
+	{
+		return SequenceIO.read(new BufferedReader(new StringReader(text)), null, null);
+	}
+}
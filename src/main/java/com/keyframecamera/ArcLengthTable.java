@@ -0,0 +1,290 @@
+package com.keyframecamera;
+
+import java.util.Arrays;
+
+/**
+ * Retiming that moves the camera focal point at constant speed. Each segment
+ * gets a table of cumulative path length and speed at evenly spaced curve
+ * parameters. Sampling finds the distance travelled at a time, binary searches
+ * the table for it and refines the parameter on a cubic fitted to the interval,
+ * so the cost per frame doesn't depend on the path.
+ * <p>
+ * Speed is made constant within each run of consecutive moving segments. A run
+ * keeps its total duration and shares it out by length, so the keyframes at its
+ * ends are still reached on time. Segments where the focal point doesn't move,
+ * and cuts, keep their own duration and easing.
+ * <p>
+ * Edits mark the segments whose path they change as dirty, the same range
+ * {@link SplineCoefficients} recomputes. The first sample after an edit
+ * measures only those segments again; the retimed keyframe starts are then
+ * summed again from the per-segment lengths, which is cheap next to measuring.
+ */
+class ArcLengthTable
+{
+	private static final int SAMPLES = 16;
+	private static final int STRIDE = SAMPLES + 1;
+	private static final double STEP = 1e-4;
+
+	private int version = -1;
+	private int segments;
+	private int dirtyFrom = 0;
+	private int dirtyTo = Integer.MAX_VALUE;
+	// Start of each keyframe on the retimed timeline
+	private double[] starts = new double[0];
+	// Cumulative length and its derivative at u = k / SAMPLES for each segment;
+	// floats keep long sequences small
+	private float[] lengths = new float[0];
+	private float[] speeds = new float[0];
+
+	synchronized void invalidate(int fromSegment, int toSegment)
+	{
+		dirtyFrom = Math.min(dirtyFrom, Math.max(0, fromSegment));
+		dirtyTo = Math.max(dirtyTo, toSegment);
+	}
+
+	void invalidateAll()
+	{
+		invalidate(0, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Called when keyframe {@code index} is removed. The tables of the segments
+	 * after it move down one place rather than being measured again; only the
+	 * segments whose neighbourhood changed are invalidated.
+	 */
+	synchronized void remove(int index)
+	{
+		int moved = segments - index - 1;
+		if (moved > 0)
+		{
+			System.arraycopy(lengths, (index + 1) * STRIDE, lengths, index * STRIDE, moved * STRIDE);
+			System.arraycopy(speeds, (index + 1) * STRIDE, speeds, index * STRIDE, moved * STRIDE);
+		}
+		segments = Math.max(0, segments - 1);
+		invalidate(index - 2, index);
+	}
+
+	/**
+	 * The keyframe whose segment contains {@code time} on the retimed timeline,
+	 * skipping zero-length segments like {@link Sequence#segmentAt}.
+	 */
+	synchronized int segmentAt(Sequence sequence, double time)
+	{
+		update(sequence);
+
+		int low = 0;
+		int high = segments;
+		while (low < high)
+		{
+			int mid = (low + high + 1) >>> 1;
+			if (starts[mid] <= time)
+			{
+				low = mid;
+			}
+			else
+			{
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+	synchronized double startOf(Sequence sequence, int index)
+	{
+		update(sequence);
+		return starts[index];
+	}
+
+	/**
+	 * The duration for segment {@code index - 1} that retimes keyframe
+	 * {@code index} to {@code time}. Inside a run the keyframe keeps its share
+	 * of the run, so it moves by that share of any change to the run's duration;
+	 * this is exact unless the new duration also changes the path's shape.
+	 */
+	synchronized long durationToReach(Sequence sequence, int index, double time)
+	{
+		update(sequence);
+
+		int segment = index - 1;
+		if (!isMoving(sequence, segment))
+		{
+			return Math.max(0, Math.round(time - starts[segment]));
+		}
+
+		int first = segment;
+		while (first > 0 && isMoving(sequence, first - 1))
+		{
+			first--;
+		}
+		int end = index;
+		while (end < segments && isMoving(sequence, end))
+		{
+			end++;
+		}
+
+		double run = starts[end] - starts[first];
+		double share = (starts[index] - starts[first]) / run;
+		return Math.max(0, Math.round(sequence.getKeyframeDuration(segment) + (time - starts[first]) / share - run));
+	}
+
+	/**
+	 * Curve parameter in [0, 1] to evaluate {@code segment} at for {@code time}.
+	 */
+	synchronized double parameterAt(Sequence sequence, int segment, double time)
+	{
+		update(sequence);
+
+		double duration = starts[segment + 1] - starts[segment];
+		double t = duration > 0 ? Math.min(1, Math.max(0, (time - starts[segment]) / duration)) : 1;
+		int o = segment * STRIDE;
+		if (!isMoving(sequence, segment))
+		{
+			return Ease.calculateEasing(sequence, segment, t);
+		}
+
+		double target = t * lengths[o + SAMPLES];
+		int low = 0;
+		int high = SAMPLES - 1;
+		while (low < high)
+		{
+			int mid = (low + high + 1) >>> 1;
+			if (lengths[o + mid] <= target)
+			{
+				low = mid;
+			}
+			else
+			{
+				high = mid - 1;
+			}
+		}
+
+		// Length over the interval as a cubic in v from its end values and slopes
+		double s0 = lengths[o + low];
+		double s1 = lengths[o + low + 1];
+		double d0 = speeds[o + low] / SAMPLES;
+		double d1 = speeds[o + low + 1] / SAMPLES;
+		double c = 3 * (s1 - s0) - 2 * d0 - d1;
+		double d = 2 * (s0 - s1) + d0 + d1;
+
+		double v = s1 > s0 ? (target - s0) / (s1 - s0) : 0;
+		for (int i = 0; i < 3; i++)
+		{
+			double slope = d0 + v * (2 * c + v * 3 * d);
+			if (slope <= 0)
+			{
+				break;
+			}
+			double error = s0 + v * (d0 + v * (c + v * d)) - target;
+			v = Math.min(1, Math.max(0, v - error / slope));
+		}
+		return (low + v) / SAMPLES;
+	}
+
+	private void update(Sequence sequence)
+	{
+		if (version == sequence.getVersion())
+		{
+			return;
+		}
+
+		int size = sequence.size();
+		segments = Math.max(0, size - 1);
+		if (starts.length < size)
+		{
+			starts = new double[Math.max(size, starts.length * 2)];
+		}
+		if (lengths.length < segments * STRIDE)
+		{
+			lengths = Arrays.copyOf(lengths, Math.max(segments, lengths.length / STRIDE * 2) * STRIDE);
+			speeds = Arrays.copyOf(speeds, lengths.length);
+		}
+
+		CameraSample sample = new CameraSample();
+		int to = Math.min(dirtyTo, segments - 1);
+		for (int segment = dirtyFrom; segment <= to; segment++)
+		{
+			measure(sequence, segment, sample);
+		}
+		dirtyFrom = Integer.MAX_VALUE;
+		dirtyTo = -1;
+
+		starts[0] = 0;
+		int segment = 0;
+		while (segment < segments)
+		{
+			if (!isMoving(sequence, segment))
+			{
+				starts[segment + 1] = starts[segment] + sequence.getKeyframeDuration(segment);
+				segment++;
+				continue;
+			}
+
+			int end = segment;
+			double duration = 0;
+			double length = 0;
+			while (end < segments && isMoving(sequence, end))
+			{
+				duration += sequence.getKeyframeDuration(end);
+				length += lengths[end * STRIDE + SAMPLES];
+				end++;
+			}
+			for (; segment < end; segment++)
+			{
+				starts[segment + 1] = starts[segment] + duration * lengths[segment * STRIDE + SAMPLES] / length;
+			}
+			// Keep the end of the run exact despite rounding
+			starts[end] = sequence.getTimestamp(end);
+		}
+
+		version = sequence.getVersion();
+	}
+
+	/**
+	 * Fills in one segment's table, integrating speed over each interval with
+	 * Simpson's rule.
+	 */
+	private void measure(Sequence sequence, int segment, CameraSample sample)
+	{
+		int o = segment * STRIDE;
+		double h = 1.0 / SAMPLES;
+		double length = 0;
+		double speed = speed(sequence, segment, 0, sample);
+
+		lengths[o] = 0;
+		speeds[o] = (float) speed;
+		for (int k = 1; k <= SAMPLES; k++)
+		{
+			double middle = speed(sequence, segment, (k - 0.5) * h, sample);
+			double next = speed(sequence, segment, k * h, sample);
+			length += h / 6 * (speed + 4 * middle + next);
+			lengths[o + k] = (float) length;
+			speeds[o + k] = (float) next;
+			speed = next;
+		}
+	}
+
+	/**
+	 * Focal point distance per unit of curve parameter, by a central difference.
+	 */
+	private static double speed(Sequence sequence, int segment, double u, CameraSample sample)
+	{
+		double u0 = Math.max(0, u - STEP);
+		double u1 = Math.min(1, u + STEP);
+
+		sequence.position(segment, u0, sample);
+		double x = sample.getFocalX();
+		double y = sample.getFocalY();
+		double z = sample.getFocalZ();
+
+		sequence.position(segment, u1, sample);
+		double dx = sample.getFocalX() - x;
+		double dy = sample.getFocalY() - y;
+		double dz = sample.getFocalZ() - z;
+		return Math.sqrt(dx * dx + dy * dy + dz * dz) / (u1 - u0);
+	}
+
+	private boolean isMoving(Sequence sequence, int segment)
+	{
+		return sequence.getKeyframeDuration(segment) > 0 && lengths[segment * STRIDE + SAMPLES] > 0;
+	}
+}
@@ -0,0 +1,157 @@
+package com.keyframecamera;
+
+/**
+ * A {@link Sequence} pre-sampled at a fixed rate into primitive tables, so
+ * evaluating a frame is a table read and a linear blend between two samples.
+ * A bake is tied to the sequence version it was made from and goes stale as
+ * soon as the sequence is edited.
+ */
+public class BakedSequence
+{
+	public static final int SAMPLE_RATE = 1000;
+	private static final int MAX_SAMPLES = 1 << 20;
+	private static final double TWO_PI = 2 * Math.PI;
+
+	private final int version;
+	private final double samplesPerMs;
+	private final int samples;
+	private final double[] timestamps;
+
+	private final float[] focalX;
+	private final float[] focalY;
+	private final float[] focalZ;
+	private final float[] pitch;
+	private final float[] yaw;
+	private final float[] scale;
+
+	private BakedSequence(Sequence sequence)
+	{
+		version = sequence.getVersion();
+
+		long duration = sequence.getSequenceDuration();
+		double rate = Math.min(SAMPLE_RATE, (double) (MAX_SAMPLES - 1) * 1000 / Math.max(1, duration));
+		samplesPerMs = rate / 1000;
+		samples = (int) Math.ceil(duration * samplesPerMs) + 1;
+
+		timestamps = new double[sequence.size()];
+		for (int i = 0; i < timestamps.length; i++)
+		{
+			timestamps[i] = sequence.getPlaybackTimestamp(i);
+		}
+
+		focalX = new float[samples];
+		focalY = new float[samples];
+		focalZ = new float[samples];
+		pitch = new float[samples];
+		yaw = new float[samples];
+		scale = new float[samples];
+
+		CameraSample sample = new CameraSample();
+		double previousYaw = 0;
+		for (int i = 0; i < samples; i++)
+		{
+			sequence.sample(Math.min(i / samplesPerMs, duration), sample);
+
+			// Keep yaw continuous so blending between two samples never crosses the wrap
+			double sampleYaw = sample.getYaw();
+			if (i > 0)
+			{
+				sampleYaw -= TWO_PI * Math.round((sampleYaw - previousYaw) / TWO_PI);
+			}
+			previousYaw = sampleYaw;
+
+			focalX[i] = (float) sample.getFocalX();
+			focalY[i] = (float) sample.getFocalY();
+			focalZ[i] = (float) sample.getFocalZ();
+			pitch[i] = (float) sample.getPitch();
+			yaw[i] = (float) sampleYaw;
+			scale[i] = sample.getScale();
+		}
+	}
+
+	public static BakedSequence bake(Sequence sequence)
+	{
+		return new BakedSequence(sequence);
+	}
+
+	public boolean isStale(Sequence sequence)
+	{
+		return sequence.getVersion() != version;
+	}
+
+	/**
+	 * Writes the camera state at {@code time} ms into {@code out} and returns the
+	 * index of the keyframe whose segment contains it. Samples either side of a
+	 * cut aren't blended, as that would sweep the camera through the jump; the
+	 * one on the same side as {@code time} is used instead.
+	 */
+	public int sample(double time, CameraSample out)
+	{
+		double position = Math.max(0, time * samplesPerMs);
+		int i = Math.min((int) position, samples - 1);
+		int j = Math.min(i + 1, samples - 1);
+		float t = (float) (position - i);
+
+		int index = segmentAt(time);
+		if (isCut(index) && timestamps[index] > i / samplesPerMs)
+		{
+			t = 1;
+		}
+		else if (isCut(index + 2) && timestamps[index + 1] <= j / samplesPerMs)
+		{
+			t = 0;
+		}
+
+		double sampleYaw = blend(yaw, i, j, t) % TWO_PI;
+		if (sampleYaw < 0)
+		{
+			sampleYaw += TWO_PI;
+		}
+
+		out.set(
+			blend(focalX, i, j, t),
+			blend(focalY, i, j, t),
+			blend(focalZ, i, j, t),
+			blend(pitch, i, j, t),
+			sampleYaw,
+			(int) blend(scale, i, j, t)
+		);
+
+		return index;
+	}
+
+	/**
+	 * Whether the camera jumps to keyframe {@code index}, because the segment
+	 * before it has no length.
+	 */
+	private boolean isCut(int index)
+	{
+		return index > 0 && index < timestamps.length && timestamps[index - 1] == timestamps[index];
+	}
+
+	private static float blend(float[] table, int i, int j, float t)
+	{
+		return table[i] + (table[j] - table[i]) * t;
+	}
+
+	private int segmentAt(double time)
+	{
+		int low = 0;
+		int high = timestamps.length - 1;
+
+		while (low < high)
+		{
+			int mid = (low + high + 1) >>> 1;
+			if (timestamps[mid] <= time)
+			{
+				low = mid;
+			}
+			else
+			{
+				high = mid - 1;
+			}
+		}
+
+		return low;
+	}
+}
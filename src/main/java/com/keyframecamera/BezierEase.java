@@ -0,0 +1,175 @@
+package com.keyframecamera;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import lombok.Getter;
+
+/**
+ * A custom easing curve, given like CSS {@code cubic-bezier(x1, y1, x2, y2)} as
+ * the two inner control points of a cubic Bezier from (0, 0) to (1, 1). The x
+ * coordinates must be in [0, 1] so the curve is a function of time; y may go
+ * outside it to overshoot.
+ * <p>
+ * Finding y for a given x means solving the cubic for its parameter. That is
+ * done with Newton-Raphson once for every entry of an {@link EaseTable} the
+ * first time the curve is used. Equal curves are interned, so keyframes that
+ * share a curve share its table.
+ */
+public final class BezierEase
+{
+	public static final BezierEase DEFAULT = new BezierEase(0.25, 0.1, 0.25, 1);
+
+	private static final int CACHE_SIZE = 256;
+	private static final Map<BezierEase, BezierEase> CACHE = new LinkedHashMap<BezierEase, BezierEase>(16, 0.75f, true)
+	{
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<BezierEase, BezierEase> eldest)
+		{
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	@Getter
+	private final double x1;
+	@Getter
+	private final double y1;
+	@Getter
+	private final double x2;
+	@Getter
+	private final double y2;
+
+	private volatile EaseTable table;
+
+	private BezierEase(double x1, double y1, double x2, double y2)
+	{
+		this.x1 = x1;
+		this.y1 = y1;
+		this.x2 = x2;
+		this.y2 = y2;
+	}
+
+	public static BezierEase of(double x1, double y1, double x2, double y2)
+	{
+		if (!(x1 >= 0 && x1 <= 1 && x2 >= 0 && x2 <= 1) || !Double.isFinite(y1) || !Double.isFinite(y2))
+		{
+			throw new IllegalArgumentException("Control point x must be in [0, 1] and y finite");
+		}
+
+		BezierEase curve = new BezierEase(x1, y1, x2, y2);
+		synchronized (CACHE)
+		{
+			BezierEase cached = CACHE.putIfAbsent(curve, curve);
+			return cached != null ? cached : curve;
+		}
+	}
+
+	/**
+	 * Parses {@code "x1, y1, x2, y2"}, or returns null if that isn't a valid curve.
+	 */
+	public static BezierEase parse(String text)
+	{
+		String[] parts = text.split(",");
+		if (parts.length != 4)
+		{
+			return null;
+		}
+		try
+		{
+			return of(Double.parseDouble(parts[0].trim()), Double.parseDouble(parts[1].trim()),
+				Double.parseDouble(parts[2].trim()), Double.parseDouble(parts[3].trim()));
+		}
+		catch (IllegalArgumentException e)
+		{
+			return null;
+		}
+	}
+
+	double ease(double t)
+	{
+		EaseTable table = this.table;
+		if (table == null)
+		{
+			// Racing threads build identical tables, so either one can win
+			table = new EaseTable(this::solve);
+			this.table = table;
+		}
+		return table.get(t);
+	}
+
+	double solve(double x)
+	{
+		// x(s) is monotonic because both x control points are in [0, 1]
+		double s = x;
+		for (int i = 0; i < 8; i++)
+		{
+			double error = bezier(x1, x2, s) - x;
+			if (Math.abs(error) < 1e-9)
+			{
+				return bezier(y1, y2, s);
+			}
+			double slope = slope(x1, x2, s);
+			if (Math.abs(slope) < 1e-6)
+			{
+				break;
+			}
+			s -= error / slope;
+		}
+
+		// Newton stalls where the curve is flat in x; bisection always converges
+		double low = 0;
+		double high = 1;
+		s = x;
+		for (int i = 0; i < 40; i++)
+		{
+			if (bezier(x1, x2, s) < x)
+			{
+				low = s;
+			}
+			else
+			{
+				high = s;
+			}
+			s = (low + high) / 2;
+		}
+		return bezier(y1, y2, s);
+	}
+
+	private static double bezier(double p1, double p2, double s)
+	{
+		double u = 1 - s;
+		return 3 * u * u * s * p1 + 3 * u * s * s * p2 + s * s * s;
+	}
+
+	private static double slope(double p1, double p2, double s)
+	{
+		double u = 1 - s;
+		return 3 * u * u * p1 + 6 * u * s * (p2 - p1) + 3 * s * s * (1 - p2);
+	}
+
+	@Override
+	public boolean equals(Object o)
+	{
+		if (!(o instanceof BezierEase))
+		{
+			return false;
+		}
+		BezierEase other = (BezierEase) o;
+		return x1 == other.x1 && y1 == other.y1 && x2 == other.x2 && y2 == other.y2;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		int result = Double.hashCode(x1);
+		result = 31 * result + Double.hashCode(y1);
+		result = 31 * result + Double.hashCode(x2);
+		return 31 * result + Double.hashCode(y2);
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format(Locale.ROOT, "%s, %s, %s, %s", x1, y1, x2, y2);
+	}
+}
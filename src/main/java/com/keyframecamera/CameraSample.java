@@ -0,0 +1,40 @@
+package com.keyframecamera;
+
+import lombok.Getter;
+
+/**
+ * Mutable camera state produced by interpolation. A single instance is
+ * reused for every frame so evaluating a sequence doesn't allocate.
+ */
+@Getter
+public class CameraSample
+{
+	private double focalX;
+	private double focalY;
+	private double focalZ;
+	private double pitch;
+	private double yaw;
+	private int scale;
+
+	public void set(double focalX, double focalY, double focalZ, double pitch, double yaw, int scale)
+	{
+		this.focalX = focalX;
+		this.focalY = focalY;
+		this.focalZ = focalZ;
+		this.pitch = pitch;
+		this.yaw = yaw;
+		this.scale = scale;
+	}
+
+	public void set(Keyframe keyframe)
+	{
+		set(
+			keyframe.getFocalX(),
+			keyframe.getFocalY(),
+			keyframe.getFocalZ(),
+			keyframe.getPitch(),
+			keyframe.getYaw(),
+			keyframe.getScale()
+		);
+	}
+}
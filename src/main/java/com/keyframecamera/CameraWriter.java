@@ -0,0 +1,136 @@
+package com.keyframecamera;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import net.runelite.api.Client;
+import net.runelite.api.ScriptID;
+import net.runelite.client.callback.ClientThread;
+
+/**
+ * Pushes camera state to the client, only touching the channels that changed
+ * since the last write. Writes made on the client thread are applied inline;
+ * writes from other threads are coalesced into a single queued invoke. How
+ * long that invoke waits for the client thread is recorded in the stats.
+ */
+public class CameraWriter
+{
+	private final Client client;
+	private final ClientThread clientThread;
+	private final PlaybackStats stats;
+	private final PlaybackClock clock;
+
+	// Last values pushed to the client, only touched on the client thread
+	private volatile boolean valid;
+	private double focalX;
+	private double focalY;
+	private double focalZ;
+	private int pitch;
+	private int yaw;
+	private int scale;
+
+	// Latest write from off the client thread, waiting to be applied
+	private final AtomicBoolean queued = new AtomicBoolean();
+	private volatile long queuedAt;
+	private final double[] pendingFocal = new double[3];
+	private final int[] pendingAngles = new int[3];
+	private final Runnable applyPending = this::applyPending;
+
+	public CameraWriter(Client client, ClientThread clientThread, PlaybackStats stats, PlaybackClock clock)
+	{
+		this.client = client;
+		this.clientThread = clientThread;
+		this.stats = stats;
+		this.clock = clock;
+	}
+
+	/**
+	 * Forgets what was last written, so the next write pushes every channel.
+	 * Used whenever something other than playback may have moved the camera.
+	 */
+	public void invalidate()
+	{
+		valid = false;
+	}
+
+	public void write(double focalX, double focalY, double focalZ, int pitch, int yaw, int scale)
+	{
+		if (client.isClientThread())
+		{
+			apply(focalX, focalY, focalZ, pitch, yaw, scale);
+			return;
+		}
+
+		synchronized (pendingFocal)
+		{
+			pendingFocal[0] = focalX;
+			pendingFocal[1] = focalY;
+			pendingFocal[2] = focalZ;
+			pendingAngles[0] = pitch;
+			pendingAngles[1] = yaw;
+			pendingAngles[2] = scale;
+		}
+
+		if (queued.compareAndSet(false, true))
+		{
+			queuedAt = clock.nanoTime();
+			clientThread.invoke(applyPending);
+		}
+	}
+
+	private void applyPending()
+	{
+		stats.recordQueueDelay(clock.nanoTime() - queuedAt);
+		queued.set(false);
+
+		double focalX, focalY, focalZ;
+		int pitch, yaw, scale;
+		synchronized (pendingFocal)
+		{
+			focalX = pendingFocal[0];
+			focalY = pendingFocal[1];
+			focalZ = pendingFocal[2];
+			pitch = pendingAngles[0];
+			yaw = pendingAngles[1];
+			scale = pendingAngles[2];
+		}
+
+		apply(focalX, focalY, focalZ, pitch, yaw, scale);
+	}
+
+	private void apply(double focalX, double focalY, double focalZ, int pitch, int yaw, int scale)
+	{
+		boolean force = !valid;
+
+		if (force || focalX != this.focalX)
+		{
+			client.setCameraFocalPointX(focalX);
+			this.focalX = focalX;
+		}
+		if (force || focalY != this.focalY)
+		{
+			client.setCameraFocalPointY(focalY);
+			this.focalY = focalY;
+		}
+		if (force || focalZ != this.focalZ)
+		{
+			client.setCameraFocalPointZ(focalZ);
+			this.focalZ = focalZ;
+		}
+		if (force || pitch != this.pitch)
+		{
+			client.setCameraPitchTarget(pitch);
+			this.pitch = pitch;
+		}
+		if (force || yaw != this.yaw)
+		{
+			client.setCameraYawTarget(yaw);
+			this.yaw = yaw;
+		}
+		if (force || scale != this.scale)
+		{
+			client.runScript(ScriptID.CAMERA_DO_ZOOM, scale, scale);
+			this.scale = scale;
+		}
+
+		valid = true;
+	}
+}
@@ -0,0 +1,150 @@
+package com.keyframecamera;
+
+import java.util.Arrays;
+
+/**
+ * Per-keyframe segment durations held in a Fenwick (binary indexed) tree, so a
+ * keyframe's timestamp is a prefix sum. Changing a duration, appending and
+ * looking up a timestamp or the segment at a time are all O(log n), however
+ * many keyframes come after the one being edited. Removing is linear in the
+ * keyframes after the removed one, like the column shift in {@link Sequence}.
+ * The last keyframe's duration is always zero.
+ */
+class DurationIndex
+{
+	private long[] durations;
+	// 1-based: tree[i] holds the sum of durations (i - lowbit(i), i]
+	private long[] tree;
+	private int size;
+	private long total;
+
+	DurationIndex(int capacity)
+	{
+		durations = new long[capacity];
+		tree = new long[capacity + 1];
+	}
+
+	DurationIndex(DurationIndex other)
+	{
+		durations = Arrays.copyOf(other.durations, other.size);
+		tree = Arrays.copyOf(other.tree, other.size + 1);
+		size = other.size;
+		total = other.total;
+	}
+
+	int size()
+	{
+		return size;
+	}
+
+	long total()
+	{
+		return total;
+	}
+
+	long get(int index)
+	{
+		return durations[index];
+	}
+
+	/**
+	 * Sum of the durations before {@code index}.
+	 */
+	long timestampOf(int index)
+	{
+		long sum = 0;
+		for (int i = index; i > 0; i -= i & -i)
+		{
+			sum += tree[i];
+		}
+		return sum;
+	}
+
+	void set(int index, long duration)
+	{
+		long delta = duration - durations[index];
+		if (delta == 0)
+		{
+			return;
+		}
+
+		durations[index] = duration;
+		total += delta;
+		for (int i = index + 1; i <= size; i += i & -i)
+		{
+			tree[i] += delta;
+		}
+	}
+
+	void append(long duration)
+	{
+		if (size == durations.length)
+		{
+			int capacity = Math.max(16, durations.length * 2);
+			durations = Arrays.copyOf(durations, capacity);
+			tree = Arrays.copyOf(tree, capacity + 1);
+		}
+
+		durations[size] = duration;
+		size++;
+
+		int i = size;
+		tree[i] = duration + timestampOf(i - 1) - timestampOf(i - (i & -i));
+		total += duration;
+	}
+
+	/**
+	 * Removes a duration, moving everything after it earlier by that amount.
+	 * Only the tree nodes from the removed index on cover shifted durations, so
+	 * those are rebuilt from their children; removing the last keyframe is
+	 * O(log n).
+	 */
+	void remove(int index)
+	{
+		total -= durations[index];
+		System.arraycopy(durations, index + 1, durations, index, size - index - 1);
+		durations[size - 1] = 0;
+		tree[size] = 0;
+		size--;
+
+		for (int i = index + 1; i <= size; i++)
+		{
+			// Node i covers its own duration plus nodes i - 1, i - 2, i - 4, ... below its low bit
+			long sum = durations[i - 1];
+			for (int child = 1; child < (i & -i); child <<= 1)
+			{
+				sum += tree[i - child];
+			}
+			tree[i] = sum;
+		}
+	}
+
+	void swap(int a, int b)
+	{
+		long durationA = durations[a];
+		set(a, durations[b]);
+		set(b, durationA);
+	}
+
+	/**
+	 * The last index whose timestamp is at or before {@code time}, clamped to the
+	 * valid range. Zero-length segments are skipped over.
+	 */
+	int search(double time)
+	{
+		int position = 0;
+		double remaining = time;
+
+		for (int step = Integer.highestOneBit(Math.max(1, size)); step > 0; step >>= 1)
+		{
+			int next = position + step;
+			if (next <= size && tree[next] <= remaining)
+			{
+				position = next;
+				remaining -= tree[next];
+			}
+		}
+
+		return Math.max(0, Math.min(position, size - 1));
+	}
+}
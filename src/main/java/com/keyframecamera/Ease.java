@@ -1,14 +1,25 @@
 package com.keyframecamera;
 
 public class Ease {
-    public static Keyframe interpolate(Keyframe currentKeyframe, Keyframe nextKeyframe, double t) {
-        if (nextKeyframe == null) {
-            return currentKeyframe;
+    // The built-in curves are only ever read through these tables
+    private static final EaseTable[] TABLES = new EaseTable[EaseType.values().length];
+
+    static {
+        for (EaseType ease : EaseType.values()) {
+            if (ease != EaseType.BEZIER) {
+                TABLES[ease.ordinal()] = new EaseTable(t -> evaluate(ease, t));
+            }
         }
+    }
 
-        double interpolationFactor = calculateEasing(currentKeyframe.getEase(), t);
-        double currentYaw = currentKeyframe.getYaw();
-        double nextYaw = nextKeyframe.getYaw();
+    public static void interpolate(Sequence sequence, int index, double t, CameraSample out) {
+        lerp(sequence, index, calculateEasing(sequence, index, t), out);
+    }
+
+    static void lerp(Sequence sequence, int index, double interpolationFactor, CameraSample out) {
+        int next = index + 1;
+        double currentYaw = sequence.getYaw(index);
+        double nextYaw = sequence.getYaw(next);
 
         double yawDiff = Keyframe.radiansToJau(nextYaw - currentYaw);
         if (Math.abs(yawDiff) > 1024) {
@@ -19,14 +30,13 @@ public class Ease {
             }
         }
 
-        return new Keyframe(
-                lerp(currentKeyframe.getFocalX(), nextKeyframe.getFocalX(), interpolationFactor),
-                lerp(currentKeyframe.getFocalY(), nextKeyframe.getFocalY(), interpolationFactor),
-                lerp(currentKeyframe.getFocalZ(), nextKeyframe.getFocalZ(), interpolationFactor),
-                lerp(currentKeyframe.getPitch(), nextKeyframe.getPitch(), interpolationFactor),
+        out.set(
+                lerp(sequence.getFocalX(index), sequence.getFocalX(next), interpolationFactor),
+                lerp(sequence.getFocalY(index), sequence.getFocalY(next), interpolationFactor),
+                lerp(sequence.getFocalZ(index), sequence.getFocalZ(next), interpolationFactor),
+                lerp(sequence.getPitch(index), sequence.getPitch(next), interpolationFactor),
                 lerp(currentYaw, nextYaw, interpolationFactor),
-                (int) lerp(currentKeyframe.getScale(), nextKeyframe.getScale(), interpolationFactor),
-                currentKeyframe.getEase()
+                (int) lerp(sequence.getScale(index), sequence.getScale(next), interpolationFactor)
         );
     }
 
@@ -34,7 +44,15 @@ public class Ease {
         return start + (end - start) * t;
     }
 
-    private static double calculateEasing(EaseType ease, double t) {
+    /**
+     * Eases {@code t} by the curve of keyframe {@code index}, including its Bezier control points.
+     */
+    static double calculateEasing(Sequence sequence, int index, double t) {
+        EaseType ease = sequence.getEase(index);
+        return ease == EaseType.BEZIER ? sequence.getBezier(index).ease(t) : TABLES[ease.ordinal()].get(t);
+    }
+
+    static double evaluate(EaseType ease, double t) {
         switch (ease) {
             case LINEAR:
                 return t;
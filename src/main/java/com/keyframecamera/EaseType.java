@@ -7,5 +7,9 @@ public enum EaseType {
     CUBIC,
     QUART,
     QUINT,
-    EXPO
+    EXPO,
+    /**
+     * A per-keyframe {@link BezierEase} curve.
+     */
+    BEZIER
 }
@@ -0,0 +1,20 @@
+package com.keyframecamera;
+
+/**
+ * How a sequence's path passes through its keyframes.
+ */
+public enum InterpolationMode
+{
+	/**
+	 * Straight lines between keyframes.
+	 */
+	LINEAR,
+	/**
+	 * A smooth curve through every keyframe. It can overshoot between keyframes.
+	 */
+	CATMULL_ROM,
+	/**
+	 * A smooth curve that never overshoots, so it stays between each pair of keyframe values.
+	 */
+	HERMITE
+}
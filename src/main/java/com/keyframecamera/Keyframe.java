@@ -1,30 +1,63 @@
 package com.keyframecamera;
 
-import java.util.UUID;
-import lombok.Data;
+import lombok.Getter;
 
-@Data
+/**
+ * A view onto one row of a {@link Sequence}, identified by a handle that stays
+ * the same while the keyframe is moved around. The values live in the sequence's
+ * columns; edits go through the sequence so listeners and derived data stay in sync.
+ */
 public class Keyframe
 {
-	private String id;
-	private double focalX;
-	private double focalY;
-	private double focalZ;
-	private double pitch;
-	private double yaw;
-	private int scale;
-	private EaseType ease;
-
-	public Keyframe(double focalX, double focalY, double focalZ, double pitch, double yaw, int scale, EaseType ease)
-	{
-		this.id = UUID.randomUUID().toString();
-		this.focalX = focalX;
-		this.focalY = focalY;
-		this.focalZ = focalZ;
-		this.pitch = pitch;
-		this.yaw = yaw;
-		this.scale = scale;
-		this.ease = ease;
+	final Sequence sequence;
+
+	@Getter
+	private final int handle;
+
+	Keyframe(Sequence sequence, int handle)
+	{
+		this.sequence = sequence;
+		this.handle = handle;
+	}
+
+	public double getFocalX()
+	{
+		return sequence.getFocalX(position());
+	}
+
+	public double getFocalY()
+	{
+		return sequence.getFocalY(position());
+	}
+
+	public double getFocalZ()
+	{
+		return sequence.getFocalZ(position());
+	}
+
+	public double getPitch()
+	{
+		return sequence.getPitch(position());
+	}
+
+	public double getYaw()
+	{
+		return sequence.getYaw(position());
+	}
+
+	public int getScale()
+	{
+		return sequence.getScale(position());
+	}
+
+	public EaseType getEase()
+	{
+		return sequence.getEase(position());
+	}
+
+	private int position()
+	{
+		return sequence.indexOf(this);
 	}
 
 	private static final double RADIANS_TO_JAU_FACTOR = 2048.0 / (2 * Math.PI);
@@ -34,23 +67,43 @@ public class Keyframe
 		return (int) Math.round(radians * RADIANS_TO_JAU_FACTOR) % 2048;
 	}
 
+	@Override
+	public boolean equals(Object o)
+	{
+		if (this == o)
+		{
+			return true;
+		}
+		if (!(o instanceof Keyframe))
+		{
+			return false;
+		}
+		Keyframe other = (Keyframe) o;
+		return sequence == other.sequence && handle == other.handle;
+	}
+
 	@Override
 	public int hashCode()
 	{
-		return id.hashCode();
+		return handle;
 	}
 
 	public String toString()
 	{
+		if (sequence.missing(this))
+		{
+			return "Keyframe{handle=" + handle + ", removed}";
+		}
+
 		return "Keyframe{" +
-			"id='" + id + '\'' +
-			", focalX=" + focalX +
-			", focalY=" + focalY +
-			", focalZ=" + focalZ +
-			", pitch=" + pitch +
-			", yaw=" + yaw +
-			", scale=" + scale +
-			", ease=" + ease +
+			"handle=" + handle +
+			", focalX=" + getFocalX() +
+			", focalY=" + getFocalY() +
+			", focalZ=" + getFocalZ() +
+			", pitch=" + getPitch() +
+			", yaw=" + getYaw() +
+			", scale=" + getScale() +
+			", ease=" + getEase() +
 			'}';
 	}
 
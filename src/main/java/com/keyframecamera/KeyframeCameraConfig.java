@@ -43,23 +43,49 @@ public interface KeyframeCameraConfig extends Config
 	}
 
 	@ConfigItem(
-			keyName = "playing",
-			name = "Playing",
-			description = "Whether the camera sequence is currently playing",
-			hidden = true
+		keyName = "bakePlayback",
+		name = "Bake Playback",
+		description = "Pre-sample the sequence when playback starts so each frame is a table lookup.<br>" +
+			"Uses more memory for long sequences. Editing during playback falls back to live evaluation.",
+		position = 4
 	)
-	default boolean playing()
+	default boolean bakePlayback()
 	{
 		return false;
 	}
 
 	@ConfigItem(
-			keyName = "paused",
-			name = "Paused",
-			description = "Whether the camera sequence is currently paused",
-			hidden = true
+		keyName = "saveFormat",
+		name = "Save Format",
+		description = "File format for saved sequences. Text files can be edited by hand and are read by<br>" +
+			"older versions of the plugin; binary files are smaller and load faster. Both formats can always be loaded.",
+		position = 5
 	)
-	default boolean paused()
+	default SequenceFormat saveFormat()
+	{
+		return SequenceFormat.TEXT;
+	}
+
+	@ConfigItem(
+		keyName = "autosave",
+		name = "Autosave",
+		description = "Continuously save edits to the sequences folder and restore them on the next start,<br>" +
+			"including after a crash.",
+		position = 6
+	)
+	default boolean autosave()
+	{
+		return true;
+	}
+
+	@ConfigItem(
+		keyName = "performanceOverlay",
+		name = "Performance Overlay",
+		description = "Show how much frame time playback uses: tick latency, client thread queue delay<br>" +
+			"and keyframes skipped because they were shorter than a frame. Right-click it to export a CSV.",
+		position = 7
+	)
+	default boolean performanceOverlay()
 	{
 		return false;
 	}
@@ -3,10 +3,18 @@ package com.keyframecamera;
 import com.google.inject.Provides;
 import com.keyframecamera.panel.CameraControlPanel;
 import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 import javax.inject.Inject;
 import javax.swing.SwingUtilities;
 import lombok.Getter;
@@ -31,6 +39,7 @@ import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
 import net.runelite.client.ui.ClientToolbar;
 import net.runelite.client.ui.NavigationButton;
+import net.runelite.client.ui.overlay.OverlayManager;
 import net.runelite.client.util.ImageUtil;
 
 @Slf4j
@@ -54,37 +63,55 @@ public class KeyframeCameraPlugin extends Plugin
 	private ClientToolbar clientToolbar;
 
 	@Inject
-	private ConfigManager configManager;
+	private ChatMessageManager chatMessageManager;
 
 	@Inject
-	private ChatMessageManager chatMessageManager;
+	private OverlayManager overlayManager;
 
 	Playback playback;
 
+	// Replaced on the EDT, read by the client thread
 	@Getter
 	@Setter
-	private Sequence sequence;
+	private volatile Sequence sequence;
+
+	// Saves and loads run here, one at a time, so file I/O never blocks the EDT or client thread
+	private ScheduledExecutorService ioExecutor;
+	private SequenceJournal journal;
+
+	@Getter
+	private SequenceLibrary library;
 
 	private CameraControlPanel panel;
 	private NavigationButton navButton;
+	private PlaybackStatsOverlay statsOverlay;
 	private static final BufferedImage ICON = ImageUtil.loadImageResource(KeyframeCameraPlugin.class, "icon.png");
 
 	public static Path SEQUENCE_DIR = Paths.get(RUNELITE_DIR.toString(), "sequences");
+	private static final String ARCHIVE_NAME = "sequences" + SequenceFormat.ARCHIVE.getExtension();
 	int prevCameraMode = -1;
+	private final AtomicBoolean redrawQueued = new AtomicBoolean();
 
 	@Override
 	protected void startUp()
 	{
-		configManager.setConfiguration(KeyframeCameraConfig.GROUP, "playing", false);
-		configManager.setConfiguration(KeyframeCameraConfig.GROUP, "paused", false);
-
 		if (!SEQUENCE_DIR.toFile().exists())
 		{
 			SEQUENCE_DIR.toFile().mkdir();
 		}
 
+		ioExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "keyframe-camera-io");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		library = new SequenceLibrary(SEQUENCE_DIR);
+		library.start();
+
 		sequence = new Sequence(client, config);
-		playback = new Playback(this, config, configManager, client, clientThread);
+		playback = new Playback(this, config, client, clientThread);
+		playback.addListener((previous, state) -> redrawPanel());
 
 		panel = new CameraControlPanel(this, playback, client, config);
 		navButton = NavigationButton.builder()
@@ -94,12 +121,62 @@ public class KeyframeCameraPlugin extends Plugin
 			.build();
 
 		clientToolbar.addNavigation(navButton);
+
+		statsOverlay = new PlaybackStatsOverlay(this, config, playback.getStats());
+		overlayManager.add(statsOverlay);
+
+		if (config.autosave())
+		{
+			journal = new SequenceJournal(SEQUENCE_DIR, ioExecutor);
+			restoreAutosave();
+		}
+	}
+
+	private void restoreAutosave()
+	{
+		ioExecutor.execute(() -> {
+			Sequence recovered = null;
+			try
+			{
+				recovered = journal.recover(client, config);
+			}
+			catch (IOException e)
+			{
+				log.warn("Failed to restore autosaved sequence", e);
+			}
+
+			Sequence restored = recovered;
+			SwingUtilities.invokeLater(() -> {
+				if (journal == null)
+				{
+					// Shut down while the autosave was being read
+					return;
+				}
+				// Anything edited while the autosave was being read takes priority over it
+				if (restored != null && !restored.isEmpty() && sequence.getVersion() == 0)
+				{
+					sequence = restored;
+					sendChatMessage("Restored autosaved sequence.");
+					redrawPanel();
+				}
+				journal.attach(sequence);
+			});
+		});
 	}
 
 	@Override
 	protected void shutDown()
 	{
 		clientToolbar.removeNavigation(navButton);
+		overlayManager.remove(statsOverlay);
+		library.stop();
+		if (journal != null)
+		{
+			journal.close();
+			journal = null;
+		}
+		// Let a save that's already been started finish writing its file
+		ioExecutor.shutdown();
 	}
 
 	public boolean freeCamEnabled()
@@ -117,39 +194,107 @@ public class KeyframeCameraPlugin extends Plugin
 	public void save()
 	{
 		String timestamp = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(Calendar.getInstance().getTime());
-		String name = timestamp + ".txt";
-		boolean success = SequenceIO.save(sequence, SEQUENCE_DIR.resolve(name).toString());
+		SequenceFormat format = config.saveFormat();
+		Sequence snapshot = sequence.copy();
+
+		ioExecutor.execute(() -> {
+			String name;
+			boolean success;
+			if (format == SequenceFormat.ARCHIVE)
+			{
+				name = ARCHIVE_NAME + "/" + timestamp;
+				success = SequenceIO.saveToArchive(snapshot, SEQUENCE_DIR.resolve(ARCHIVE_NAME), timestamp);
+			}
+			else
+			{
+				name = timestamp + format.getExtension();
+				success = SequenceIO.save(snapshot, SEQUENCE_DIR.resolve(name).toString(), format);
+			}
+
+			if (success)
+			{
+				sendChatMessage("Sequence saved:" + name);
+			}
+			else
+			{
+				sendChatMessage("Failed to save sequence.");
+			}
+		});
+	}
 
-		if (success)
-		{
-			sendChatMessage("Sequence saved:" + name);
-		}
-		else
-		{
-			sendChatMessage("Failed to save sequence.");
-		}
+	/**
+	 * Writes the playback stats to a CSV file in the sequences folder.
+	 */
+	public void exportStats()
+	{
+		String timestamp = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(Calendar.getInstance().getTime());
+		String name = "playback-stats_" + timestamp + ".csv";
+
+		ioExecutor.execute(() -> {
+			try (Writer writer = Files.newBufferedWriter(SEQUENCE_DIR.resolve(name), StandardCharsets.UTF_8))
+			{
+				playback.getStats().writeCsv(writer);
+				sendChatMessage("Playback stats saved: " + name);
+			}
+			catch (IOException e)
+			{
+				log.warn("Failed to export playback stats", e);
+				sendChatMessage("Failed to save playback stats.");
+			}
+		});
 	}
 
 	public void wipe()
 	{
-		sequence = new Sequence(client, config);
+		replaceSequence(new Sequence(client, config));
+	}
+
+	private void replaceSequence(Sequence sequence)
+	{
+		this.sequence = sequence;
+		if (journal != null)
+		{
+			journal.attach(sequence);
+		}
 		redrawPanel();
 	}
 
 	public void load(String name)
 	{
 		Path sequencePath = KeyframeCameraPlugin.SEQUENCE_DIR.resolve(name);
-		sequence = SequenceIO.load(sequencePath.toString(), client, config);
+		load(name, () -> SequenceIO.load(sequencePath.toString(), client, config));
+	}
 
-		if (sequence == null)
-		{
-			sendChatMessage("Failed to load sequence.");
-		}
-		else
+	public void load(SequenceInfo info)
+	{
+		if (info.getArchive() == null)
 		{
-			sendChatMessage("Sequence loaded: " + name);
-			redrawPanel();
+			load(info.getName());
+			return;
 		}
+
+		Path archivePath = SEQUENCE_DIR.resolve(info.getArchive());
+		load(info.getArchive() + "/" + info.getName(), () -> SequenceIO.loadFromArchive(archivePath, info.getName(), client, config));
+	}
+
+	private void load(String name, Supplier<Sequence> loader)
+	{
+		sendChatMessage("Loading sequence: " + name);
+
+		ioExecutor.execute(() -> {
+			Sequence loaded = loader.get();
+
+			if (loaded == null)
+			{
+				sendChatMessage("Failed to load sequence.");
+				return;
+			}
+
+			SwingUtilities.invokeLater(() -> {
+				replaceSequence(loaded);
+				sendChatMessage("Sequence loaded: " + name);
+			});
+		});
 	}
 
 	@Subscribe
@@ -166,24 +311,44 @@ public class KeyframeCameraPlugin extends Plugin
 	}
 
 	@Subscribe
-	public void onGameTick(GameTick event)
+	public void onConfigChanged(ConfigChanged event)
 	{
-		if (client.getGameState() != GameState.LOGGED_IN)
+		if (!event.getGroup().equals(KeyframeCameraConfig.GROUP) || !event.getKey().equals("autosave"))
 		{
 			return;
 		}
-		if (prevCameraMode != client.getCameraMode())
-		{
-			prevCameraMode = client.getCameraMode();
-			redrawPanel();
-		}
+
+		// The journal is driven by edits on the EDT
+		SwingUtilities.invokeLater(() -> {
+			if (ioExecutor.isShutdown())
+			{
+				// Shut down since the change was made
+				return;
+			}
+			if (config.autosave() && journal == null)
+			{
+				// Nothing is restored mid-session; the current sequence replaces the autosave
+				journal = new SequenceJournal(SEQUENCE_DIR, ioExecutor);
+				journal.attach(sequence);
+			}
+			else if (!config.autosave() && journal != null)
+			{
+				journal.close();
+				journal = null;
+			}
+		});
 	}
 
 	@Subscribe
-	public void onConfigChanged(ConfigChanged event)
+	public void onGameTick(GameTick event)
 	{
-		if (event.getGroup().equals(KeyframeCameraConfig.GROUP) && (event.getKey().equals("playing") || event.getKey().equals("paused")))
+		if (client.getGameState() != GameState.LOGGED_IN)
 		{
+			return;
+		}
+		if (prevCameraMode != client.getCameraMode())
+		{
+			prevCameraMode = client.getCameraMode();
 			redrawPanel();
 		}
 	}
@@ -208,7 +373,13 @@ public class KeyframeCameraPlugin extends Plugin
 
 	public void redrawPanel()
 	{
+		// Requests made before the EDT gets to the queued update are merged into it
+		if (!redrawQueued.compareAndSet(false, true))
+		{
+			return;
+		}
 		SwingUtilities.invokeLater(() -> {
+			redrawQueued.set(false);
 			panel.updatePanel();
 		});
 	}
@@ -0,0 +1,94 @@
+package com.keyframecamera;
+
+import java.util.Arrays;
+
+/**
+ * Counts of durations in fixed, log-linear buckets. Each power of two is split
+ * into {@link #SUB_BUCKETS} buckets, so a percentile is within about 6% of the
+ * real value from a nanosecond up to a minute, in a few kilobytes. Recording
+ * is a couple of shifts and an increment and never allocates.
+ * <p>
+ * Not thread safe; {@link PlaybackStats} guards it.
+ */
+class LatencyHistogram
+{
+	static final int SUB_BITS = 4;
+	static final int SUB_BUCKETS = 1 << SUB_BITS;
+	// Durations from 31 * 2^32 ns, about two minutes, share the last bucket
+	private static final int MAX_SHIFT = 32;
+	static final int BUCKETS = (MAX_SHIFT + 2) * SUB_BUCKETS;
+
+	private final long[] counts = new long[BUCKETS];
+	private long count;
+	private long max;
+
+	void record(long nanos)
+	{
+		counts[bucketOf(Math.max(0, nanos))]++;
+		count++;
+		max = Math.max(max, nanos);
+	}
+
+	long getCount()
+	{
+		return count;
+	}
+
+	long getMax()
+	{
+		return max;
+	}
+
+	/**
+	 * The upper bound of the bucket holding the given fraction of recordings,
+	 * capped at the largest one recorded. Zero when nothing has been recorded.
+	 */
+	long percentile(double fraction)
+	{
+		if (count == 0)
+		{
+			return 0;
+		}
+
+		long rank = Math.max(1, (long) Math.ceil(fraction * count));
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++)
+		{
+			seen += counts[bucket];
+			if (seen >= rank)
+			{
+				// The last bucket has no upper bound
+				return bucket == BUCKETS - 1 ? max : Math.min(max, lowerBound(bucket + 1) - 1);
+			}
+		}
+		return max;
+	}
+
+	void reset()
+	{
+		Arrays.fill(counts, 0);
+		count = 0;
+		max = 0;
+	}
+
+	static int bucketOf(long nanos)
+	{
+		if (nanos < 2 * SUB_BUCKETS)
+		{
+			return (int) nanos;
+		}
+		int shift = Math.min(MAX_SHIFT, 63 - Long.numberOfLeadingZeros(nanos) - SUB_BITS);
+		long mantissa = Math.min(2 * SUB_BUCKETS - 1, nanos >>> shift);
+		return shift * SUB_BUCKETS + (int) mantissa;
+	}
+
+	static long lowerBound(int bucket)
+	{
+		if (bucket < 2 * SUB_BUCKETS)
+		{
+			return bucket;
+		}
+		int shift = bucket / SUB_BUCKETS - 1;
+		return (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+	}
+}
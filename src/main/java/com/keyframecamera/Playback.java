@@ -1,13 +1,16 @@
 package com.keyframecamera;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import jdk.jfr.EventType;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
-import net.runelite.api.ScriptID;
 import net.runelite.api.WorldView;
 import net.runelite.client.callback.ClientThread;
-import net.runelite.client.config.ConfigManager;
 
 @Slf4j
 public class Playback
@@ -15,45 +18,128 @@ public class Playback
 
     KeyframeCameraPlugin plugin;
     KeyframeCameraConfig config;
-    ConfigManager configManager;
     Client client;
     ClientThread clientThread;
     Sequence sequence;
 
     @Getter
-    private int currentKeyframeIndex = 0;
-    private Keyframe currentKeyframe;
+    private volatile int currentKeyframeIndex = 0;
+    private final CameraSample sample = new CameraSample();
+    private final CameraWriter cameraWriter;
+    private BakedSequence bakedSequence;
+    @Getter
+    private final PlaybackStats stats = new PlaybackStats();
+    // Set by a seek so the jump isn't counted as skipped keyframes
+    private volatile boolean jumped;
+
+    // Latest seek while not playing, applied on the client thread; repeated seeks while scrubbing share one invoke
+    private final AtomicBoolean seekQueued = new AtomicBoolean();
+    private volatile long seekPosition;
+    private final Runnable applySeek = this::applySeek;
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    // Checked each frame so no tick event is allocated unless a recording has it enabled
+    private static final EventType TICK_EVENT = EventType.getEventType(PlaybackTickEvent.class);
 
-    private long startTime = 0;
-    private long pauseStartTime = 0;
-    private long totalPauseTime = 0;
+    private final PlaybackClock clock;
+    private volatile long startTime = 0;
+    private volatile long pauseStartTime = 0;
+    private volatile long totalPauseTime = 0;
+
+    private final AtomicReference<PlaybackState> state = new AtomicReference<>(PlaybackState.STOPPED);
+    private final List<PlaybackListener> listeners = new CopyOnWriteArrayList<>();
 
 	@Getter
 	@Setter
 	private boolean loop;
 
-    public Playback(KeyframeCameraPlugin plugin, KeyframeCameraConfig config, ConfigManager configManager, Client client, ClientThread clientThread)
+    public Playback(KeyframeCameraPlugin plugin, KeyframeCameraConfig config, Client client, ClientThread clientThread)
+    {
+        this(plugin, config, client, clientThread, PlaybackClock.SYSTEM);
+    }
+
+    public Playback(KeyframeCameraPlugin plugin, KeyframeCameraConfig config, Client client, ClientThread clientThread, PlaybackClock clock)
     {
         this.plugin = plugin;
+        this.clock = clock;
         this.sequence = plugin.getSequence();
         this.config = config;
-        this.configManager = configManager;
         this.client = client;
         this.clientThread = clientThread;
+        this.cameraWriter = new CameraWriter(client, clientThread, stats, clock);
 		loop = config.loop();
     }
 
-    public boolean isPlaying() { return config.playing(); }
-    public boolean isPaused() { return config.paused(); }
+    public PlaybackState getState() { return state.get(); }
+    public boolean isPlaying() { return state.get() != PlaybackState.STOPPED; }
+    public boolean isPaused() { return state.get() == PlaybackState.PAUSED; }
+
+    public void addListener(PlaybackListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    public void removeListener(PlaybackListener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    private boolean transition(PlaybackState from, PlaybackState to)
+    {
+        // Read before the change, as a stopped playback reports no time played
+        long elapsedNanos = elapsedNanos();
+        if (!state.compareAndSet(from, to))
+        {
+            return false;
+        }
+        PlaybackStateEvent event = new PlaybackStateEvent();
+        if (event.shouldCommit())
+        {
+            event.from = from.name();
+            event.to = to.name();
+            event.elapsed = elapsedNanos / NANOS_PER_MILLI;
+            event.commit();
+        }
+        for (PlaybackListener listener : listeners)
+        {
+            listener.onStateChanged(from, to);
+        }
+        return true;
+    }
 
     public long elapsed()
     {
-        if (!config.playing())
+        return elapsedNanos() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Position within the sequence in nanoseconds. While looping this wraps
+     * modulo the sequence duration, so the phase never drifts however long
+     * the loop has been running.
+     */
+    public long elapsedNanos()
+    {
+        long elapsedTime = runningNanos();
+        if (loop && sequence != null)
+        {
+            long duration = sequence.getSequenceDuration() * NANOS_PER_MILLI;
+            if (duration > 0)
+            {
+                elapsedTime %= duration;
+            }
+        }
+        return elapsedTime;
+    }
+
+    private long runningNanos()
+    {
+        PlaybackState currentState = state.get();
+        if (currentState == PlaybackState.STOPPED)
         {
             return 0;
         }
 
-        long currentTime = System.currentTimeMillis();
+        long currentTime = currentState == PlaybackState.PAUSED ? pauseStartTime : clock.nanoTime();
         long elapsedTime = currentTime - startTime - totalPauseTime;
 
         if (elapsedTime < 0)
@@ -69,44 +155,91 @@ public class Playback
         sequence = plugin.getSequence();
         if (sequence == null) return;
         if (sequence.size() < 2) return;
-        if (config.playing()) return;
+        if (isPlaying()) return;
         if (!plugin.freeCamEnabled()) plugin.toggleCameraMode();
 
-        currentKeyframe = null;
-        startTime = System.currentTimeMillis();
+        currentKeyframeIndex = -1;
+        jumped = false;
+        stats.reset();
+        cameraWriter.invalidate();
+        bakedSequence = config.bakePlayback() ? BakedSequence.bake(sequence) : null;
+        startTime = clock.nanoTime();
+        pauseStartTime = 0;
         totalPauseTime = 0;
-        configManager.setConfiguration(KeyframeCameraConfig.GROUP, "playing", true);
-        configManager.setConfiguration(KeyframeCameraConfig.GROUP, "paused", false);
+        transition(PlaybackState.STOPPED, PlaybackState.PLAYING);
     }
 
     public void togglePause()
     {
-        if (!config.playing()) return;
-        if (config.paused())
+        if (isPaused())
         {
-            totalPauseTime += System.currentTimeMillis() - pauseStartTime;
-            configManager.setConfiguration(KeyframeCameraConfig.GROUP, "paused", false);
+            long pauseEndTime = clock.nanoTime();
+            totalPauseTime += pauseEndTime - pauseStartTime;
+            // Keeps the position the same until the state changes
+            pauseStartTime = pauseEndTime;
+            cameraWriter.invalidate();
+            transition(PlaybackState.PAUSED, PlaybackState.PLAYING);
         }
-        else
+        else if (isPlaying())
         {
-            pauseStartTime = System.currentTimeMillis();
-            configManager.setConfiguration(KeyframeCameraConfig.GROUP, "paused", true);
+            pauseStartTime = clock.nanoTime();
+            transition(PlaybackState.PLAYING, PlaybackState.PAUSED);
         }
     }
 
     public void stop()
     {
-        configManager.setConfiguration(KeyframeCameraConfig.GROUP, "playing", false);
-        configManager.setConfiguration(KeyframeCameraConfig.GROUP, "paused", false);
+        PlaybackState previous = state.get();
+        if (previous != PlaybackState.STOPPED)
+        {
+            transition(previous, PlaybackState.STOPPED);
+        }
     }
 
-    private void resetPlayback()
+    /**
+     * Jumps to {@code ms} into the sequence. While playing the clock is re-anchored
+     * so playback continues from there; while paused or stopped the camera is moved
+     * to that point on the client thread.
+     */
+    public void seek(long ms)
     {
-        startTime = System.currentTimeMillis();
-        pauseStartTime = 0;
-        totalPauseTime = 0;
-        currentKeyframe = sequence.get(0);
-        currentKeyframeIndex = 0;
+        PlaybackState currentState = state.get();
+        if (currentState == PlaybackState.STOPPED)
+        {
+            sequence = plugin.getSequence();
+        }
+        if (sequence == null || sequence.size() < 2) return;
+
+        long position = Math.max(0, Math.min(ms, sequence.getSequenceDuration())) * NANOS_PER_MILLI;
+
+        if (currentState != PlaybackState.STOPPED)
+        {
+            long now = currentState == PlaybackState.PAUSED ? pauseStartTime : clock.nanoTime();
+            startTime = now - totalPauseTime - position;
+            jumped = true;
+        }
+
+        if (currentState != PlaybackState.PLAYING)
+        {
+            seekPosition = position;
+            if (seekQueued.compareAndSet(false, true))
+            {
+                clientThread.invokeLater(applySeek);
+            }
+        }
+    }
+
+    private void applySeek()
+    {
+        seekQueued.set(false);
+        // Playback that started or resumed since the seek owns the camera now
+        if (getState() == PlaybackState.PLAYING || sequence == null || sequence.size() < 2)
+        {
+            return;
+        }
+        cameraWriter.invalidate();
+        evaluate((double) seekPosition / NANOS_PER_MILLI);
+        setCamera(sample);
     }
 
     public void tick()
@@ -114,50 +247,107 @@ public class Playback
         if (!isPlaying() || isPaused()) return;
         if (sequence.size() < 2) return;
 
-        if (currentKeyframe == null) {
-            resetPlayback();
+        PlaybackTickEvent event = null;
+        if (TICK_EVENT.isEnabled())
+        {
+            event = new PlaybackTickEvent();
+            event.begin();
+        }
+        long start = clock.nanoTime();
+        int previous = currentKeyframeIndex;
+        if (!loop && runningNanos() >= sequence.getSequenceDuration() * NANOS_PER_MILLI)
+        {
+            sample.set(sequence.get(sequence.size() - 1));
+            setCamera(sample);
+            stop();
+            recordFrame(start, previous, sequence.size() - 1);
+            commit(event, sequence.size() - 1, sequence.getSequenceDuration());
+            return;
         }
 
-        if (sequence.isLast(currentKeyframe) && isPlaying())
+        double elapsed = (double) elapsedNanos() / NANOS_PER_MILLI;
+        evaluate(elapsed);
+		setCamera(sample);
+        recordFrame(start, previous, currentKeyframeIndex);
+        commit(event, currentKeyframeIndex, elapsed);
+	}
+
+    private void commit(PlaybackTickEvent event, int index, double elapsed)
+    {
+        if (event == null)
         {
-			if (loop)
-			{
-                resetPlayback();
-            } else {
-                stop();
-				return;
-            }
+            return;
+        }
+        event.end();
+        if (!event.shouldCommit())
+        {
+            return;
         }
 
-        long elapsed = elapsed();
+        double progress = 1;
+        if (index < sequence.size() - 1)
+        {
+            double segmentStart = sequence.getPlaybackTimestamp(index);
+            double duration = sequence.getPlaybackTimestamp(index + 1) - segmentStart;
+            progress = duration > 0 ? Math.min(1, Math.max(0, (elapsed - segmentStart) / duration)) : 1;
+        }
+        event.keyframe = index;
+        event.progress = progress;
+        event.elapsed = elapsed;
+        event.baked = bakedSequence != null;
+        event.commit();
+    }
 
-        if (elapsed >= sequence.getTimestamp(currentKeyframeIndex + 1))
+    private void recordFrame(long start, int previous, int index)
+    {
+        if (jumped)
         {
-            currentKeyframeIndex++;
-            currentKeyframe = sequence.get(currentKeyframeIndex);
-            plugin.redrawPanel();
+            jumped = false;
         }
+        else
+        {
+            stats.recordKeyframes(sequence, previous, index);
+        }
+        stats.recordTick(clock.nanoTime() - start);
+    }
 
-        if (sequence.isLast(currentKeyframe)) {
-			setCameraToKeyframe(currentKeyframe);
-            return;
+    private void evaluate(double elapsed)
+    {
+        if (bakedSequence != null && bakedSequence.isStale(sequence))
+        {
+            bakedSequence = null;
         }
 
-        double t = sequence.t(currentKeyframe, elapsed());
-        Keyframe interpolatedKeyframe = Ease.interpolate(currentKeyframe, sequence.getNext(currentKeyframe), t);
+        int index = bakedSequence != null
+            ? bakedSequence.sample(elapsed, sample)
+            : sequence.sample(elapsed, sample);
 
-		setCameraToKeyframe(interpolatedKeyframe);
-	}
+        if (index != currentKeyframeIndex)
+        {
+            currentKeyframeIndex = index;
+            plugin.redrawPanel();
+        }
+    }
 
 	public void setCameraToKeyframe(Keyframe keyframe)
+	{
+		CameraSample keyframeSample = new CameraSample();
+		keyframeSample.set(keyframe);
+		clientThread.invokeLater(() -> {
+			cameraWriter.invalidate();
+			setCamera(keyframeSample);
+		});
+	}
+
+	private void setCamera(CameraSample sample)
 	{
 		if (client.getCameraMode() != 1)
 		{
 			client.setCameraMode(1);
 		}
 
-		double focalX = keyframe.getFocalX();
-		double focalZ = keyframe.getFocalZ();
+		double focalX = sample.getFocalX();
+		double focalZ = sample.getFocalZ();
 
 		if (sequence.isPreserveLocation())
 		{
@@ -184,17 +374,12 @@ public class Playback
 			}
 		}
 
-		final double finalFocalX = focalX;
-		final double finalFocalZ = focalZ;
+		double focalY = sample.getFocalY();
+		int pitch = Keyframe.radiansToJau(sample.getPitch());
+		int yaw = Keyframe.radiansToJau(sample.getYaw()) % 2047;
+		int scale = sample.getScale();
 
-		clientThread.invoke(() -> {
-			client.setCameraFocalPointX(finalFocalX);
-			client.setCameraFocalPointY(keyframe.getFocalY());
-			client.setCameraFocalPointZ(finalFocalZ);
-			client.setCameraPitchTarget(Keyframe.radiansToJau(keyframe.getPitch()));
-			client.setCameraYawTarget(Keyframe.radiansToJau(keyframe.getYaw()) % 2047);
-			client.runScript(ScriptID.CAMERA_DO_ZOOM, keyframe.getScale(), keyframe.getScale());
-		});
+		cameraWriter.write(focalX, focalY, focalZ, pitch, yaw, scale);
 	}
 
 }
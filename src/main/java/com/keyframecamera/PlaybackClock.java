@@ -0,0 +1,12 @@
+package com.keyframecamera;
+
+/**
+ * Monotonic time source for {@link Playback}, in nanoseconds.
+ * Only differences between readings are meaningful.
+ */
+public interface PlaybackClock
+{
+	PlaybackClock SYSTEM = System::nanoTime;
+
+	long nanoTime();
+}
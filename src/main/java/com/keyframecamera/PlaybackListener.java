@@ -0,0 +1,9 @@
+package com.keyframecamera;
+
+/**
+ * Notified on every {@link Playback} state transition, on the thread that caused it.
+ */
+public interface PlaybackListener
+{
+	void onStateChanged(PlaybackState previous, PlaybackState state);
+}
@@ -0,0 +1,8 @@
+package com.keyframecamera;
+
+public enum PlaybackState
+{
+	STOPPED,
+	PLAYING,
+	PAUSED
+}
@@ -0,0 +1,26 @@
+package com.keyframecamera;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Playback starting, pausing, resuming or stopping.
+ */
+@Name("com.keyframecamera.PlaybackState")
+@Label("Playback State")
+@Category({"Keyframe Camera", "Playback"})
+class PlaybackStateEvent extends Event
+{
+	@Label("From")
+	String from;
+
+	@Label("To")
+	String to;
+
+	@Label("Elapsed")
+	@Description("Position in the sequence in ms")
+	long elapsed;
+}
@@ -0,0 +1,125 @@
+package com.keyframecamera;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Locale;
+import lombok.Getter;
+
+/**
+ * How much frame time playback uses. Collected on the client thread while a
+ * sequence plays and read by the overlay and the CSV export:
+ * <ul>
+ * <li>time spent in each {@link Playback#tick()}</li>
+ * <li>how long camera writes made off the client thread wait for it to pick them up</li>
+ * <li>keyframes that no frame landed in, because their segment was shorter than a frame</li>
+ * </ul>
+ * Reset whenever playback starts.
+ */
+public class PlaybackStats
+{
+	/**
+	 * Percentiles of one histogram at the time it was read.
+	 */
+	@Getter
+	public static class Latency
+	{
+		private final long count;
+		private final long p50;
+		private final long p99;
+		private final long max;
+
+		Latency(LatencyHistogram histogram)
+		{
+			this.count = histogram.getCount();
+			this.p50 = histogram.percentile(0.5);
+			this.p99 = histogram.percentile(0.99);
+			this.max = histogram.getMax();
+		}
+	}
+
+	private final LatencyHistogram ticks = new LatencyHistogram();
+	private final LatencyHistogram queueDelays = new LatencyHistogram();
+	private long skippedKeyframes;
+
+	synchronized void recordTick(long nanos)
+	{
+		ticks.record(nanos);
+	}
+
+	synchronized void recordQueueDelay(long nanos)
+	{
+		queueDelays.record(nanos);
+	}
+
+	/**
+	 * Counts the keyframes stepped over between two consecutive frames, wrapping
+	 * round the end of a loop. Cuts have no length to land in and aren't counted.
+	 */
+	synchronized void recordKeyframes(Sequence sequence, int from, int to)
+	{
+		int last = sequence.size() - 1;
+		if (to < from)
+		{
+			skippedKeyframes += skipped(sequence, from + 1, last);
+			from = -1;
+		}
+		skippedKeyframes += skipped(sequence, from + 1, Math.min(to, last));
+	}
+
+	private static int skipped(Sequence sequence, int start, int end)
+	{
+		int skipped = 0;
+		for (int i = Math.max(0, start); i < end; i++)
+		{
+			if (sequence.getKeyframeDuration(i) > 0)
+			{
+				skipped++;
+			}
+		}
+		return skipped;
+	}
+
+	public synchronized Latency getTickLatency()
+	{
+		return new Latency(ticks);
+	}
+
+	public synchronized Latency getQueueDelay()
+	{
+		return new Latency(queueDelays);
+	}
+
+	public synchronized long getSkippedKeyframes()
+	{
+		return skippedKeyframes;
+	}
+
+	public synchronized void reset()
+	{
+		ticks.reset();
+		queueDelays.reset();
+		skippedKeyframes = 0;
+	}
+
+	/**
+	 * Writes one row per metric, with latencies in nanoseconds.
+	 */
+	public void writeCsv(Writer writer)
+	{
+		Latency tick = getTickLatency();
+		Latency queue = getQueueDelay();
+		long skipped = getSkippedKeyframes();
+
+		PrintWriter out = new PrintWriter(writer);
+		out.println("metric,count,p50_ns,p99_ns,max_ns");
+		writeRow(out, "tick", tick);
+		writeRow(out, "queue_delay", queue);
+		out.printf(Locale.ROOT, "skipped_keyframes,%d,,,%n", skipped);
+		out.flush();
+	}
+
+	private static void writeRow(PrintWriter out, String metric, Latency latency)
+	{
+		out.printf(Locale.ROOT, "%s,%d,%d,%d,%d%n", metric, latency.getCount(), latency.getP50(), latency.getP99(), latency.getMax());
+	}
+}
@@ -0,0 +1,70 @@
+package com.keyframecamera;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import net.runelite.api.MenuAction;
+import net.runelite.client.ui.overlay.OverlayPanel;
+import net.runelite.client.ui.overlay.OverlayPosition;
+import net.runelite.client.ui.overlay.components.LineComponent;
+import net.runelite.client.ui.overlay.components.TitleComponent;
+
+/**
+ * Shows the {@link PlaybackStats} of the current or last playback, with menu
+ * entries to export them as CSV and to reset them.
+ */
+class PlaybackStatsOverlay extends OverlayPanel
+{
+	private static final double NANOS_PER_MICRO = 1000.0;
+
+	private final KeyframeCameraConfig config;
+	private final PlaybackStats stats;
+
+	PlaybackStatsOverlay(KeyframeCameraPlugin plugin, KeyframeCameraConfig config, PlaybackStats stats)
+	{
+		super(plugin);
+		this.config = config;
+		this.stats = stats;
+		setPosition(OverlayPosition.TOP_LEFT);
+		addMenuEntry(MenuAction.RUNELITE_OVERLAY, "Export", "Playback stats", e -> plugin.exportStats());
+		addMenuEntry(MenuAction.RUNELITE_OVERLAY, "Reset", "Playback stats", e -> stats.reset());
+	}
+
+	@Override
+	public Dimension render(Graphics2D graphics)
+	{
+		if (!config.performanceOverlay())
+		{
+			return null;
+		}
+
+		PlaybackStats.Latency tick = stats.getTickLatency();
+		PlaybackStats.Latency queue = stats.getQueueDelay();
+
+		panelComponent.getChildren().add(TitleComponent.builder()
+			.text("Playback")
+			.build());
+		panelComponent.getChildren().add(LineComponent.builder()
+			.left("Frames")
+			.right(Long.toString(tick.getCount()))
+			.build());
+		addLatency("Tick", tick);
+		addLatency("Queue", queue);
+		panelComponent.getChildren().add(LineComponent.builder()
+			.left("Skipped")
+			.right(Long.toString(stats.getSkippedKeyframes()))
+			.build());
+		return super.render(graphics);
+	}
+
+	private void addLatency(String name, PlaybackStats.Latency latency)
+	{
+		panelComponent.getChildren().add(LineComponent.builder()
+			.left(name + " p50/p99")
+			.right(String.format("%.1f / %.1f us", latency.getP50() / NANOS_PER_MICRO, latency.getP99() / NANOS_PER_MICRO))
+			.build());
+		panelComponent.getChildren().add(LineComponent.builder()
+			.left(name + " max")
+			.right(String.format("%.1f us", latency.getMax() / NANOS_PER_MICRO))
+			.build());
+	}
+}
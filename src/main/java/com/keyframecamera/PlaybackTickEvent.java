@@ -0,0 +1,37 @@
+package com.keyframecamera;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One frame of playback, lasting as long as the tick took. As it would
+ * otherwise be allocated every frame, {@link Playback} only creates one while
+ * a recording has it enabled, and like the other events here it is only
+ * filled in when {@link #shouldCommit()}.
+ */
+@Name("com.keyframecamera.PlaybackTick")
+@Label("Playback Tick")
+@Category({"Keyframe Camera", "Playback"})
+@Description("Evaluating and applying one frame of a playing sequence")
+@StackTrace(false)
+class PlaybackTickEvent extends Event
+{
+	@Label("Keyframe")
+	@Description("Index of the keyframe whose segment the frame landed in")
+	int keyframe;
+
+	@Label("Segment Progress")
+	@Description("How far through the segment the frame is, from 0 to 1, before easing")
+	double progress;
+
+	@Label("Elapsed")
+	@Description("Position in the sequence in ms")
+	double elapsed;
+
+	@Label("Baked")
+	boolean baked;
+}
@@ -1,9 +1,8 @@
 package com.keyframecamera;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import lombok.Getter;
 import lombok.Setter;
 import net.runelite.api.Client;
@@ -11,20 +10,67 @@ import net.runelite.api.GameState;
 import net.runelite.api.VarClientInt;
 import net.runelite.api.WorldView;
 
+/**
+ * Keyframes are stored column-wise in growable primitive arrays, one array per
+ * channel, so evaluation reads contiguous memory without boxing or hashing.
+ * Timing is kept as per-keyframe durations in a {@link DurationIndex}, so
+ * retiming is O(log n) rather than shifting every later timestamp.
+ * <p>
+ * Each keyframe gets an integer handle from a per-sequence counter when it is
+ * added. {@link Keyframe} objects are lightweight views holding just that handle,
+ * and handles map back to positions in O(1).
+ */
 public class Sequence
 {
+	private static final int INITIAL_CAPACITY = 16;
+	private static final EaseType[] EASE_TYPES = EaseType.values();
+
 	private final Client client;
 	private final KeyframeCameraConfig config;
 
+	private int size;
+	private final DurationIndex durations;
+	private double[] focalX = new double[INITIAL_CAPACITY];
+	private double[] focalY = new double[INITIAL_CAPACITY];
+	private double[] focalZ = new double[INITIAL_CAPACITY];
+	private double[] pitch = new double[INITIAL_CAPACITY];
+	private double[] yaw = new double[INITIAL_CAPACITY];
+	private int[] scale = new int[INITIAL_CAPACITY];
+	private byte[] ease = new byte[INITIAL_CAPACITY];
+	// Only set for BEZIER keyframes; null means the default curve
+	private BezierEase[] curves = new BezierEase[INITIAL_CAPACITY];
+	private int[] handles = new int[INITIAL_CAPACITY];
+
+	// Position of each handle, or -1 once removed. Entries for rows at or after
+	// staleFrom may be out of date after a removal and are repaired on lookup.
+	private int[] positions = new int[INITIAL_CAPACITY];
+	private int staleFrom = Integer.MAX_VALUE;
+	private int nextHandle;
+
+	private final List<SequenceListener> listeners = new CopyOnWriteArrayList<>();
+	private final SplineCoefficients splines = new SplineCoefficients();
+	private final ArcLengthTable arcLengths = new ArcLengthTable();
+
 	@Getter
-	private final List<Keyframe> keyframes = new ArrayList<>();
-	private final List<Long> keyframeTimestamps = new ArrayList<>();
-	private final HashMap<Keyframe, Integer> keyframeIndexMap = new HashMap<>();
+	private InterpolationMode interpolation = InterpolationMode.LINEAR;
 
 	@Getter
 	@Setter
 	private boolean preserveLocation = true;
 
+	/**
+	 * Whether the focal point moves at constant speed, see {@link ArcLengthTable}.
+	 */
+	@Getter
+	private boolean constantSpeed;
+
+	/**
+	 * Bumped on every edit, so derived data such as a {@link BakedSequence}
+	 * can tell when it is out of date.
+	 */
+	@Getter
+	private int version;
+
 	@Getter
 	@Setter
 	private int worldViewId;
@@ -41,59 +87,232 @@ public class Sequence
 	{
 		this.client = client;
 		this.config = config;
+		this.durations = new DurationIndex(INITIAL_CAPACITY);
+	}
+
+	private Sequence(Sequence other)
+	{
+		client = other.client;
+		config = other.config;
+		size = other.size;
+		durations = new DurationIndex(other.durations);
+		focalX = Arrays.copyOf(other.focalX, size);
+		focalY = Arrays.copyOf(other.focalY, size);
+		focalZ = Arrays.copyOf(other.focalZ, size);
+		pitch = Arrays.copyOf(other.pitch, size);
+		yaw = Arrays.copyOf(other.yaw, size);
+		scale = Arrays.copyOf(other.scale, size);
+		ease = Arrays.copyOf(other.ease, size);
+		curves = Arrays.copyOf(other.curves, size);
+		handles = Arrays.copyOf(other.handles, size);
+		positions = Arrays.copyOf(other.positions, other.positions.length);
+		staleFrom = other.staleFrom;
+		nextHandle = other.nextHandle;
+		preserveLocation = other.preserveLocation;
+		interpolation = other.interpolation;
+		constantSpeed = other.constantSpeed;
+		version = other.version;
+		worldViewId = other.worldViewId;
+		baseX = other.baseX;
+		baseZ = other.baseZ;
+	}
+
+	/**
+	 * Copy of the keyframes and settings, without listeners, that can be handed
+	 * to another thread while this sequence keeps being edited.
+	 */
+	public Sequence copy()
+	{
+		return new Sequence(this);
+	}
+
+	public void addListener(SequenceListener listener)
+	{
+		listeners.add(listener);
+	}
+
+	public void removeListener(SequenceListener listener)
+	{
+		listeners.remove(listener);
 	}
 
 	public Keyframe get(int index)
 	{
-		return keyframes.get(index);
+		if (index < 0 || index >= size)
+		{
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return new Keyframe(this, handles[index]);
+	}
+
+	public int getHandle(int index)
+	{
+		return handles[index];
+	}
+
+	/**
+	 * Current position of the keyframe with the given handle, or -1 if it has
+	 * been removed. O(1) amortized: positions shifted by removals are only
+	 * recomputed when first looked up again.
+	 */
+	public int positionOf(int handle)
+	{
+		if (handle < 0 || handle >= nextHandle)
+		{
+			return -1;
+		}
+
+		int position = positions[handle];
+		if (position < 0 || (position < size && handles[position] == handle))
+		{
+			return position;
+		}
+
+		for (int i = staleFrom; i < size; i++)
+		{
+			positions[handles[i]] = i;
+		}
+		staleFrom = Integer.MAX_VALUE;
+		return positions[handle];
 	}
 
 	public long getTimestamp(int index)
 	{
-		return keyframeTimestamps.get(index);
+		return durations.timestampOf(index);
 	}
 
 	public long getTimestamp(Keyframe keyframe)
 	{
-		return keyframeTimestamps.get(keyframeIndexMap.get(keyframe));
+		return getTimestamp(indexOf(keyframe));
+	}
+
+	public double getFocalX(int index)
+	{
+		return focalX[index];
+	}
+
+	public double getFocalY(int index)
+	{
+		return focalY[index];
+	}
+
+	public double getFocalZ(int index)
+	{
+		return focalZ[index];
+	}
+
+	public double getPitch(int index)
+	{
+		return pitch[index];
+	}
+
+	public double getYaw(int index)
+	{
+		return yaw[index];
+	}
+
+	public int getScale(int index)
+	{
+		return scale[index];
+	}
+
+	public EaseType getEase(int index)
+	{
+		return EASE_TYPES[ease[index]];
+	}
+
+	/**
+	 * The curve used when the keyframe's easing is {@link EaseType#BEZIER}.
+	 */
+	public BezierEase getBezier(int index)
+	{
+		BezierEase curve = curves[index];
+		return curve != null ? curve : BezierEase.DEFAULT;
+	}
+
+	/**
+	 * The keyframe whose segment contains {@code time}: the last keyframe with a
+	 * timestamp at or before it, clamped to the first keyframe. Zero-length
+	 * segments are skipped over. O(log n).
+	 */
+	public int segmentAt(double time)
+	{
+		return durations.search(time);
 	}
 
 	public Keyframe getNext(Keyframe keyframe)
 	{
-		return keyframes.get(keyframeIndexMap.get(keyframe) + 1);
+		return get(indexOf(keyframe) + 1);
 	}
 
 	public boolean isLast(int index)
 	{
-		return index == keyframes.size() - 1;
+		return index == size - 1;
 	}
 
 	public boolean isLast(Keyframe keyframe)
 	{
-		return isLast(keyframeIndexMap.get(keyframe));
+		return isLast(indexOf(keyframe));
 	}
 
 	public boolean missing(Keyframe keyframe)
 	{
-		return !keyframeIndexMap.containsKey(keyframe);
+		return keyframe.sequence != this || positionOf(keyframe.getHandle()) < 0;
 	}
 
 	public int indexOf(Keyframe keyframe)
 	{
-		return keyframeIndexMap.get(keyframe);
+		int position = keyframe.sequence == this ? positionOf(keyframe.getHandle()) : -1;
+		if (position < 0)
+		{
+			throw new IllegalArgumentException("Keyframe is not part of this sequence");
+		}
+		return position;
 	}
 
-	public void add(Keyframe keyframe, long timestamp)
+	public int add(long timestamp, double focalX, double focalY, double focalZ, double pitch, double yaw, int scale, EaseType ease)
 	{
-		keyframes.add(keyframe);
-		keyframeIndexMap.put(keyframe, keyframes.size() - 1);
-		keyframeTimestamps.add(timestamp);
+		return add(timestamp, focalX, focalY, focalZ, pitch, yaw, scale, ease, null);
 	}
 
-	public void add(Keyframe keyframe)
+	public int add(long timestamp, double focalX, double focalY, double focalZ, double pitch, double yaw, int scale, EaseType ease, BezierEase curve)
+	{
+		ensureCapacity(size + 1);
+
+		// Timestamps before the current end are clamped, as durations can't be negative
+		if (size > 0)
+		{
+			durations.set(size - 1, Math.max(0, timestamp - durations.total()));
+		}
+		durations.append(0);
+
+		int index = size++;
+		set(index, focalX, focalY, focalZ, pitch, yaw, scale);
+		this.ease[index] = (byte) ease.ordinal();
+		curves[index] = curve;
+
+		int handle = nextHandle++;
+		if (handle == positions.length)
+		{
+			positions = Arrays.copyOf(positions, positions.length * 2);
+		}
+		handles[index] = handle;
+		positions[handle] = index;
+		splines.invalidate(index - 2, index);
+		arcLengths.invalidate(index - 2, index);
+		version++;
+
+		for (SequenceListener listener : listeners)
+		{
+			listener.keyframeAdded(index);
+		}
+		return index;
+	}
+
+	public int add(double focalX, double focalY, double focalZ, double pitch, double yaw, int scale, EaseType ease)
 	{
 		long timestamp = size() == 0 ? 0 : getSequenceDuration() + config.defaultKeyframeDuration();
-		add(keyframe, timestamp);
+		return add(timestamp, focalX, focalY, focalZ, pitch, yaw, scale, ease);
 	}
 
 	public int add()
@@ -111,45 +330,54 @@ public class Sequence
 			baseZ = worldView.getBaseY();
 		}
 
-		Keyframe keyframe = new Keyframe(
-			client.getCameraFocalPointX(),
+		int xOff = baseX - worldView.getBaseX();
+		int zOff = baseZ - worldView.getBaseY();
+
+		return add(
+			client.getCameraFocalPointX() - (xOff * 128),
 			client.getCameraFocalPointY(),
-			client.getCameraFocalPointZ(),
+			client.getCameraFocalPointZ() - (zOff * 128),
 			client.getCameraFpPitch(),
 			client.getCameraFpYaw(),
 			getScale(),
 			config.defaultKeyframeEase()
 		);
-
-		int xOff = baseX - worldView.getBaseX();
-		int zOff = baseZ - worldView.getBaseY();
-
-		keyframe.setFocalX(keyframe.getFocalX() - (xOff * 128));
-		keyframe.setFocalZ(keyframe.getFocalZ() - (zOff * 128));
-
-		add(keyframe);
-
-		return keyframes.size() - 1;
 	}
 
 	public void remove(Keyframe keyframe)
 	{
-		int index = keyframeIndexMap.get(keyframe);
-		long duration = getKeyframeDuration(keyframe);
+		int index = indexOf(keyframe);
 
-		for (int i = index; i < keyframeTimestamps.size(); i++)
+		// Later keyframes move earlier by the removed duration. If the last keyframe
+		// goes, the one before it becomes last and loses its duration.
+		durations.remove(index);
+		if (index == size - 1 && index > 0)
 		{
-			keyframeTimestamps.set(i, keyframeTimestamps.get(i) - duration);
+			durations.set(index - 1, 0);
 		}
 
-		keyframes.remove(index);
-		keyframeIndexMap.remove(keyframe);
-		keyframeTimestamps.remove(index);
-
-		for (int i = index; i < keyframes.size(); i++)
+		int moved = size - index - 1;
+		System.arraycopy(focalX, index + 1, focalX, index, moved);
+		System.arraycopy(focalY, index + 1, focalY, index, moved);
+		System.arraycopy(focalZ, index + 1, focalZ, index, moved);
+		System.arraycopy(pitch, index + 1, pitch, index, moved);
+		System.arraycopy(yaw, index + 1, yaw, index, moved);
+		System.arraycopy(scale, index + 1, scale, index, moved);
+		System.arraycopy(ease, index + 1, ease, index, moved);
+		System.arraycopy(curves, index + 1, curves, index, moved);
+		System.arraycopy(handles, index + 1, handles, index, moved);
+
+		size--;
+		curves[size] = null;
+		positions[keyframe.getHandle()] = -1;
+		staleFrom = Math.min(staleFrom, index);
+		splines.remove(index);
+		arcLengths.remove(index);
+		version++;
+
+		for (SequenceListener listener : listeners)
 		{
-			Keyframe kf = keyframes.get(i);
-			keyframeIndexMap.put(kf, i);
+			listener.keyframeRemoved(index);
 		}
 	}
 
@@ -163,14 +391,43 @@ public class Sequence
 		int indexA = indexOf(a);
 		int indexB = indexOf(b);
 
-		long timestampA = keyframeTimestamps.get(indexA);
-		long durationB = isLast(b) ? getTimestamp(b) - timestampA : getKeyframeDuration(b);
-		keyframeTimestamps.set(indexB, timestampA + durationB);
-
-		Collections.swap(keyframes, indexA, indexB);
+		// Durations travel with their keyframes, except that the last keyframe
+		// never has one, so swapping with it leaves the timing in place
+		if (!isLast(indexA) && !isLast(indexB))
+		{
+			durations.swap(indexA, indexB);
+		}
 
-		keyframeIndexMap.put(a, indexB);
-		keyframeIndexMap.put(b, indexA);
+		swap(focalX, indexA, indexB);
+		swap(focalY, indexA, indexB);
+		swap(focalZ, indexA, indexB);
+		swap(pitch, indexA, indexB);
+		swap(yaw, indexA, indexB);
+
+		int scaleA = scale[indexA];
+		scale[indexA] = scale[indexB];
+		scale[indexB] = scaleA;
+
+		byte easeA = ease[indexA];
+		ease[indexA] = ease[indexB];
+		ease[indexB] = easeA;
+
+		BezierEase curveA = curves[indexA];
+		curves[indexA] = curves[indexB];
+		curves[indexB] = curveA;
+
+		handles[indexA] = b.getHandle();
+		handles[indexB] = a.getHandle();
+		positions[a.getHandle()] = indexB;
+		positions[b.getHandle()] = indexA;
+		splines.invalidate(Math.min(indexA, indexB) - 2, Math.max(indexA, indexB) + 1);
+		arcLengths.invalidate(Math.min(indexA, indexB) - 2, Math.max(indexA, indexB) + 1);
+		version++;
+
+		for (SequenceListener listener : listeners)
+		{
+			listener.keyframesSwapped(indexA, indexB);
+		}
 	}
 
 	public void duplicate(Keyframe keyframe)
@@ -180,17 +437,9 @@ public class Sequence
 			return;
 		}
 
-		add(
-			new Keyframe(
-				keyframe.getFocalX(),
-				keyframe.getFocalY(),
-				keyframe.getFocalZ(),
-				keyframe.getPitch(),
-				keyframe.getYaw(),
-				keyframe.getScale(),
-				keyframe.getEase()
-			)
-		);
+		int index = indexOf(keyframe);
+		long timestamp = getSequenceDuration() + config.defaultKeyframeDuration();
+		add(timestamp, focalX[index], focalY[index], focalZ[index], pitch[index], yaw[index], scale[index], getEase(index), curves[index]);
 	}
 
 	public void overwrite(Keyframe keyframe)
@@ -199,12 +448,128 @@ public class Sequence
 		{
 			return;
 		}
-		keyframe.setFocalX(client.getCameraFocalPointX());
-		keyframe.setFocalY(client.getCameraFocalPointY());
-		keyframe.setFocalZ(client.getCameraFocalPointZ());
-		keyframe.setPitch(client.getCameraFpPitch());
-		keyframe.setYaw(client.getCameraFpYaw());
-		keyframe.setScale(getScale());
+		int index = indexOf(keyframe);
+		set(
+			index,
+			client.getCameraFocalPointX(),
+			client.getCameraFocalPointY(),
+			client.getCameraFocalPointZ(),
+			client.getCameraFpPitch(),
+			client.getCameraFpYaw(),
+			getScale()
+		);
+		changed(index);
+	}
+
+	public void setEase(Keyframe keyframe, EaseType ease)
+	{
+		if (missing(keyframe))
+		{
+			return;
+		}
+		int index = indexOf(keyframe);
+		this.ease[index] = (byte) ease.ordinal();
+		changed(index);
+	}
+
+	/**
+	 * Switches the keyframe to {@link EaseType#BEZIER} easing with the given curve.
+	 */
+	public void setBezier(Keyframe keyframe, BezierEase curve)
+	{
+		if (missing(keyframe))
+		{
+			return;
+		}
+		int index = indexOf(keyframe);
+		this.ease[index] = (byte) EaseType.BEZIER.ordinal();
+		curves[index] = curve;
+		changed(index);
+	}
+
+	public void setInterpolation(InterpolationMode interpolation)
+	{
+		if (this.interpolation == interpolation)
+		{
+			return;
+		}
+		this.interpolation = interpolation;
+		splines.invalidateAll();
+		arcLengths.invalidateAll();
+		version++;
+	}
+
+	public void setConstantSpeed(boolean constantSpeed)
+	{
+		if (this.constantSpeed == constantSpeed)
+		{
+			return;
+		}
+		this.constantSpeed = constantSpeed;
+		version++;
+	}
+
+	/**
+	 * Sets every value of one keyframe at once, as when replaying a {@link SequenceJournal}.
+	 */
+	void restore(int index, long duration, double focalX, double focalY, double focalZ, double pitch, double yaw, int scale, EaseType ease, BezierEase curve)
+	{
+		set(index, focalX, focalY, focalZ, pitch, yaw, scale);
+		this.ease[index] = (byte) ease.ordinal();
+		curves[index] = curve;
+		if (!isLast(index))
+		{
+			durations.set(index, Math.max(0, duration));
+		}
+		changed(index);
+	}
+
+	private void changed(int index)
+	{
+		splines.invalidate(index - 2, index + 1);
+		arcLengths.invalidate(index - 2, index + 1);
+		version++;
+
+		for (SequenceListener listener : listeners)
+		{
+			listener.keyframeChanged(index);
+		}
+	}
+
+	private void set(int index, double focalX, double focalY, double focalZ, double pitch, double yaw, int scale)
+	{
+		this.focalX[index] = focalX;
+		this.focalY[index] = focalY;
+		this.focalZ[index] = focalZ;
+		this.pitch[index] = pitch;
+		this.yaw[index] = yaw;
+		this.scale[index] = scale;
+	}
+
+	private static void swap(double[] column, int a, int b)
+	{
+		double value = column[a];
+		column[a] = column[b];
+		column[b] = value;
+	}
+
+	private void ensureCapacity(int capacity)
+	{
+		if (capacity <= focalX.length)
+		{
+			return;
+		}
+
+		int newCapacity = Math.max(capacity, focalX.length * 2);
+		focalX = Arrays.copyOf(focalX, newCapacity);
+		focalY = Arrays.copyOf(focalY, newCapacity);
+		focalZ = Arrays.copyOf(focalZ, newCapacity);
+		pitch = Arrays.copyOf(pitch, newCapacity);
+		yaw = Arrays.copyOf(yaw, newCapacity);
+		scale = Arrays.copyOf(scale, newCapacity);
+		ease = Arrays.copyOf(ease, newCapacity);
+		curves = Arrays.copyOf(curves, newCapacity);
+		handles = Arrays.copyOf(handles, newCapacity);
 	}
 
 	private int getScale()
@@ -214,50 +579,111 @@ public class Sequence
 
 	public int size()
 	{
-		return keyframes.size();
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
 	}
 
 	public long getKeyframeDuration(Keyframe keyframe)
 	{
-		if (size() < 2)
-		{
-			return 0;
-		}
+		return getKeyframeDuration(indexOf(keyframe));
+	}
+
+	public long getKeyframeDuration(int index)
+	{
+		return durations.get(index);
+	}
 
-		if (isLast(keyframe))
+	public void setKeyframeDuration(Keyframe keyframe, long duration)
+	{
+		int index = indexOf(keyframe);
+		if (!isLast(index))
 		{
-			return 0;
+			durations.set(index, Math.max(0, duration));
 		}
+		changed(index);
+	}
 
-		int index = keyframeIndexMap.get(keyframe);
-		return keyframeTimestamps.get(index + 1) - keyframeTimestamps.get(index);
+	public long getSequenceDuration()
+	{
+		return durations.total();
 	}
 
-	public void setKeyframeDuration(Keyframe keyframe, long duration)
+	/**
+	 * When keyframe {@code index} is reached during playback. This is its
+	 * timestamp unless constant speed retimes the keyframes around it.
+	 */
+	public double getPlaybackTimestamp(int index)
 	{
-		int index = keyframeIndexMap.get(keyframe);
-		long oldDuration = getKeyframeDuration(keyframe);
-		long delta = duration - oldDuration;
+		return constantSpeed ? arcLengths.startOf(this, index) : getTimestamp(index);
+	}
 
-		for (int i = index + 1; i < keyframeTimestamps.size(); i++)
+	/**
+	 * The duration to give the segment before keyframe {@code index} for it to
+	 * be reached at {@code time} on the playback timeline.
+	 */
+	public long durationToReach(int index, double time)
+	{
+		if (constantSpeed)
 		{
-			keyframeTimestamps.set(i, keyframeTimestamps.get(i) + delta);
+			return arcLengths.durationToReach(this, index, time);
 		}
+		return Math.max(0, Math.round(time - getTimestamp(index - 1)));
 	}
 
-	public long getSequenceDuration()
+	/**
+	 * Like {@link #segmentAt}, but on the playback timeline, which differs from
+	 * the timestamps when constant speed is on.
+	 */
+	public int playbackSegmentAt(double time)
+	{
+		return constantSpeed ? arcLengths.segmentAt(this, time) : segmentAt(time);
+	}
+
+	/**
+	 * Evaluates the sequence at {@code time} ms into {@code out} and returns the
+	 * index of the keyframe whose segment contains it.
+	 */
+	public int sample(double time, CameraSample out)
 	{
-		if (keyframeTimestamps.isEmpty() || keyframeTimestamps.size() == 1)
+		int index = playbackSegmentAt(time);
+
+		if (isLast(index))
+		{
+			out.set(focalX[index], focalY[index], focalZ[index], pitch[index], yaw[index], scale[index]);
+			return index;
+		}
+
+		double u;
+		if (constantSpeed)
 		{
-			return 0;
+			u = arcLengths.parameterAt(this, index, time);
 		}
-		return keyframeTimestamps.get(keyframeTimestamps.size() - 1);
+		else
+		{
+			double t = (time - durations.timestampOf(index)) / (double) durations.get(index);
+			u = Ease.calculateEasing(this, index, t);
+		}
+		position(index, u, out);
+		return index;
 	}
 
-	double t(Keyframe keyframe, long elapsed)
+	/**
+	 * Evaluates segment {@code index} at curve parameter {@code u}, after easing.
+	 */
+	void position(int index, double u, CameraSample out)
 	{
-		int keyframeElapsed = (int) (elapsed - keyframeTimestamps.get(keyframeIndexMap.get(keyframe)));
-		return (double) keyframeElapsed / (double) getKeyframeDuration(keyframe);
+		if (interpolation == InterpolationMode.LINEAR)
+		{
+			Ease.lerp(this, index, u, out);
+		}
+		else
+		{
+			splines.evaluate(this, index, u, out);
+		}
 	}
 
 }
@@ -0,0 +1,332 @@
+package com.keyframecamera;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A single file holding many named sequences, laid out like a zip file:
+ * <pre>
+ * header:  int magic, short version, short reserved, long tocOffset
+ * entry:   int entryMagic, short nameLength, byte[] name, int length, int crc, byte[length] data
+ * toc:     int tocMagic, int count, count * (short nameLength, byte[] name, long offset, int length, int crc), int tocCrc
+ * </pre>
+ * The table of contents at the end lets any entry be read by random access.
+ * Appending writes the new entry over the old table and a new table after it,
+ * then updates the header, so existing entries are never rewritten. Each
+ * entry also starts with its own header, so the table can be rebuilt by
+ * scanning the entries if a crash interrupts an append.
+ * <p>
+ * Entry data is opaque here; {@link SequenceIO} stores binary sequences in it.
+ * Adding an entry with an existing name replaces it in the table.
+ */
+@Slf4j
+public class SequenceArchive implements Closeable
+{
+	private static final int MAGIC = 0x4B464152; // "KFAR"
+	private static final int ENTRY_MAGIC = 0x4B464145; // "KFAE"
+	private static final int TOC_MAGIC = 0x4B464154; // "KFAT"
+	private static final short VERSION = 1;
+	private static final int HEADER_SIZE = 16;
+
+	@Getter
+	public static class Entry
+	{
+		private final String name;
+		private final long offset;
+		private final int length;
+		private final int crc;
+
+		Entry(String name, long offset, int length, int crc)
+		{
+			this.name = name;
+			this.offset = offset;
+			this.length = length;
+			this.crc = crc;
+		}
+	}
+
+	private final FileChannel channel;
+	private final Map<String, Entry> entries = new LinkedHashMap<>();
+	private long tocOffset;
+
+	private SequenceArchive(FileChannel channel)
+	{
+		this.channel = channel;
+	}
+
+	/**
+	 * Opens an archive, creating it if it doesn't exist.
+	 */
+	public static SequenceArchive open(Path path, boolean writable) throws IOException
+	{
+		FileChannel channel = writable
+			? FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+			: FileChannel.open(path, StandardOpenOption.READ);
+
+		SequenceArchive archive = new SequenceArchive(channel);
+		try
+		{
+			if (channel.size() == 0 && writable)
+			{
+				archive.tocOffset = HEADER_SIZE;
+				archive.writeToc();
+			}
+			else
+			{
+				archive.readToc();
+			}
+			return archive;
+		}
+		catch (IOException e)
+		{
+			channel.close();
+			throw e;
+		}
+	}
+
+	public List<Entry> getEntries()
+	{
+		return Collections.unmodifiableList(new ArrayList<>(entries.values()));
+	}
+
+	public Entry getEntry(String name)
+	{
+		return entries.get(name);
+	}
+
+	/**
+	 * Maps one entry's data without reading any other part of the archive.
+	 */
+	public ByteBuffer read(String name) throws IOException
+	{
+		Entry entry = entries.get(name);
+		if (entry == null)
+		{
+			throw new IOException("No sequence named " + name + " in archive");
+		}
+
+		ByteBuffer data = map(entry);
+		if (crc(data.duplicate()) != entry.crc)
+		{
+			throw new IOException("Checksum mismatch for " + name);
+		}
+		return data;
+	}
+
+	/**
+	 * Maps an entry's data without checking it, for reading a few fields.
+	 */
+	ByteBuffer map(Entry entry) throws IOException
+	{
+		return channel.map(FileChannel.MapMode.READ_ONLY, entry.offset, entry.length);
+	}
+
+	public void append(String name, ByteBuffer data) throws IOException
+	{
+		byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+		int length = data.remaining();
+		int crc = crc(data.duplicate());
+
+		ByteBuffer entryHeader = ByteBuffer.allocate(Integer.BYTES + Short.BYTES + nameBytes.length + 2 * Integer.BYTES);
+		entryHeader.putInt(ENTRY_MAGIC);
+		entryHeader.putShort((short) nameBytes.length);
+		entryHeader.put(nameBytes);
+		entryHeader.putInt(length);
+		entryHeader.putInt(crc);
+		entryHeader.flip();
+
+		// The new entry goes where the table was; the table is rewritten after it
+		long position = tocOffset;
+		position += write(entryHeader, position);
+		long dataOffset = position;
+		position += write(data.duplicate(), position);
+
+		entries.remove(name);
+		entries.put(name, new Entry(name, dataOffset, length, crc));
+		tocOffset = position;
+		writeToc();
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		channel.close();
+	}
+
+	private void writeToc() throws IOException
+	{
+		int size = 2 * Integer.BYTES + Integer.BYTES;
+		for (Entry entry : entries.values())
+		{
+			size += Short.BYTES + entry.name.getBytes(StandardCharsets.UTF_8).length + Long.BYTES + 2 * Integer.BYTES;
+		}
+
+		ByteBuffer toc = ByteBuffer.allocate(size);
+		toc.putInt(TOC_MAGIC);
+		toc.putInt(entries.size());
+		for (Entry entry : entries.values())
+		{
+			byte[] nameBytes = entry.name.getBytes(StandardCharsets.UTF_8);
+			toc.putShort((short) nameBytes.length);
+			toc.put(nameBytes);
+			toc.putLong(entry.offset);
+			toc.putInt(entry.length);
+			toc.putInt(entry.crc);
+		}
+		toc.flip();
+		toc.limit(size - Integer.BYTES);
+		int tocCrc = crc(toc.duplicate());
+		toc.limit(size);
+		toc.putInt(size - Integer.BYTES, tocCrc);
+
+		write(toc, tocOffset);
+		channel.truncate(tocOffset + size);
+		channel.force(false);
+
+		// Only point at the new table once it is safely written
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC);
+		header.putShort(VERSION);
+		header.putShort((short) 0);
+		header.putLong(tocOffset);
+		header.flip();
+		write(header, 0);
+		channel.force(false);
+	}
+
+	private void readToc() throws IOException
+	{
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		channel.read(header, 0);
+		if (header.hasRemaining() || header.getInt(0) != MAGIC)
+		{
+			throw new IOException("Not a sequence archive");
+		}
+		if (header.getShort(4) != VERSION)
+		{
+			throw new IOException("Unsupported archive version " + header.getShort(4));
+		}
+
+		tocOffset = header.getLong(8);
+		long size = channel.size();
+		if (tocOffset >= HEADER_SIZE && tocOffset < size && size - tocOffset <= Integer.MAX_VALUE)
+		{
+			ByteBuffer toc = channel.map(FileChannel.MapMode.READ_ONLY, tocOffset, size - tocOffset);
+			if (parseToc(toc))
+			{
+				return;
+			}
+		}
+
+		log.warn("Sequence archive table of contents is damaged, rebuilding it from the entries");
+		rebuildToc();
+	}
+
+	private boolean parseToc(ByteBuffer toc)
+	{
+		try
+		{
+			if (toc.remaining() < 3 * Integer.BYTES || toc.getInt() != TOC_MAGIC)
+			{
+				return false;
+			}
+
+			int count = toc.getInt();
+			for (int i = 0; i < count; i++)
+			{
+				byte[] nameBytes = new byte[toc.getShort() & 0xFFFF];
+				toc.get(nameBytes);
+				String name = new String(nameBytes, StandardCharsets.UTF_8);
+				entries.put(name, new Entry(name, toc.getLong(), toc.getInt(), toc.getInt()));
+			}
+
+			int end = toc.position();
+			int expected = toc.getInt();
+			toc.position(0);
+			toc.limit(end);
+			return crc(toc) == expected;
+		}
+		catch (RuntimeException e)
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * Recovers the table by walking the entry headers from the start, stopping
+	 * at the first entry that is incomplete or fails its checksum.
+	 */
+	private void rebuildToc() throws IOException
+	{
+		// Drop anything parsed from the damaged table
+		entries.clear();
+		long position = HEADER_SIZE;
+		long size = channel.size();
+		ByteBuffer fixed = ByteBuffer.allocate(Integer.BYTES + Short.BYTES);
+
+		while (position + fixed.capacity() <= size)
+		{
+			fixed.clear();
+			channel.read(fixed, position);
+			if (fixed.getInt(0) != ENTRY_MAGIC)
+			{
+				break;
+			}
+
+			int nameLength = fixed.getShort(4) & 0xFFFF;
+			ByteBuffer rest = ByteBuffer.allocate(nameLength + 2 * Integer.BYTES);
+			channel.read(rest, position + fixed.capacity());
+			if (rest.hasRemaining())
+			{
+				break;
+			}
+
+			String name = new String(rest.array(), 0, nameLength, StandardCharsets.UTF_8);
+			int length = rest.getInt(nameLength);
+			int crc = rest.getInt(nameLength + Integer.BYTES);
+			long dataOffset = position + fixed.capacity() + rest.capacity();
+			if (length < 0 || dataOffset + length > size
+				|| crc(channel.map(FileChannel.MapMode.READ_ONLY, dataOffset, length)) != crc)
+			{
+				break;
+			}
+
+			entries.remove(name);
+			entries.put(name, new Entry(name, dataOffset, length, crc));
+			position = dataOffset + length;
+		}
+
+		// Anything after the last good entry is dropped by the next append
+		tocOffset = position;
+	}
+
+	private int write(ByteBuffer buffer, long position) throws IOException
+	{
+		int written = 0;
+		while (buffer.hasRemaining())
+		{
+			written += channel.write(buffer, position + written);
+		}
+		return written;
+	}
+
+	private static int crc(ByteBuffer buffer)
+	{
+		CRC32 crc = new CRC32();
+		crc.update(buffer);
+		return (int) crc.getValue();
+	}
+}
@@ -0,0 +1,19 @@
+package com.keyframecamera;
+
+import lombok.Getter;
+
+public enum SequenceFormat
+{
+	TEXT(".txt"),
+	BINARY(".kfs"),
+	// Appended to a single archive file instead of creating a new file per save
+	ARCHIVE(".kfa");
+
+	@Getter
+	private final String extension;
+
+	SequenceFormat(String extension)
+	{
+		this.extension = extension;
+	}
+}
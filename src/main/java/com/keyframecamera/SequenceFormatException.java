@@ -0,0 +1,19 @@
+package com.keyframecamera;
+
+import java.io.IOException;
+import lombok.Getter;
+
+/**
+ * A sequence file that couldn't be parsed, with the line the problem was found on.
+ */
+public class SequenceFormatException extends IOException
+{
+	@Getter
+	private final int line;
+
+	public SequenceFormatException(int line, String message)
+	{
+		super("Line " + line + ": " + message);
+		this.line = line;
+	}
+}
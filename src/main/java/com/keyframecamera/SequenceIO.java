@@ -1,88 +1,694 @@
 package com.keyframecamera;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
 
+/**
+ * Reads and writes sequences as either comma-separated text or a versioned
+ * binary format. The binary layout is a fixed header followed by one column
+ * per channel, so a whole channel can be copied out of the file in one call:
+ * <pre>
+ * int magic, short version, short flags, int baseX, int baseZ, int count
+ * long[count] timestamps
+ * double[count] focalX, focalY, focalZ, pitch, yaw
+ * int[count] scale
+ * byte[count] ease
+ * double[4 * bezierCount] x1, y1, x2, y2 of each BEZIER keyframe in order (version 2)
+ * </pre>
+ * The text format's header line is
+ * {@code baseX,baseZ,preserveLocation,interpolation,constantSpeed}, where the
+ * last two fields may be left out.
+ * Loading detects the format from the magic number, so old text files keep working.
+ */
+@Slf4j
 public class SequenceIO
 {
-    public static String serialize(Sequence sequence)
-    {
-        StringBuilder sb = new StringBuilder();
-
-		sb.append(sequence.getBaseX()).append(",");
-		sb.append(sequence.getBaseZ()).append(",");
-		sb.append(sequence.isPreserveLocation()).append("\n");
-
-        for (Keyframe keyframe : sequence.getKeyframes())
-        {
-            sb.append(sequence.getTimestamp(keyframe)).append(",");
-            sb.append(keyframe.getFocalX()).append(",");
-            sb.append(keyframe.getFocalY()).append(",");
-            sb.append(keyframe.getFocalZ()).append(",");
-            sb.append(keyframe.getPitch()).append(",");
-            sb.append(keyframe.getYaw()).append(",");
-            sb.append(keyframe.getScale()).append(",");
-            sb.append(keyframe.getEase().name()).append("\n");
-        }
-
-        return sb.toString();
-    }
-
-	public static Sequence deserialize(String data, Client client, KeyframeCameraConfig config)
-    {
+	static final int MAGIC = 0x4B464353; // "KFCS"
+	static final short FORMAT_VERSION = 2;
+
+	static final short FLAG_PRESERVE_LOCATION = 1;
+	// Bits 1-2 hold the interpolation mode; older files have them clear, which is LINEAR
+	private static final int INTERPOLATION_SHIFT = 1;
+	private static final int INTERPOLATION_MASK = 0b11;
+	static final short FLAG_CONSTANT_SPEED = 1 << 3;
+
+	private static final int HEADER_SIZE = 20;
+	private static final int RECORD_SIZE = Long.BYTES + 5 * Double.BYTES + Integer.BYTES + Byte.BYTES;
+	private static final int CURVE_SIZE = 4 * Double.BYTES;
+
+	private static final EaseType[] EASE_TYPES = EaseType.values();
+	private static final InterpolationMode[] INTERPOLATION_MODES = InterpolationMode.values();
+
+	/**
+	 * Writes the text format one keyframe at a time, so memory use doesn't grow
+	 * with the sequence. The interpolation fields are left off the header when
+	 * they're at their defaults, so the file matches the original three-field
+	 * format.
+	 */
+	public static void write(Sequence sequence, Writer writer) throws IOException
+	{
+		writer.write(Integer.toString(sequence.getBaseX()));
+		writer.write(',');
+		writer.write(Integer.toString(sequence.getBaseZ()));
+		writer.write(',');
+		writer.write(Boolean.toString(sequence.isPreserveLocation()));
+		if (sequence.getInterpolation() != InterpolationMode.LINEAR || sequence.isConstantSpeed())
+		{
+			writer.write(',');
+			writer.write(sequence.getInterpolation().name());
+			writer.write(',');
+			writer.write(Boolean.toString(sequence.isConstantSpeed()));
+		}
+		writer.write('\n');
+
+		for (int i = 0; i < sequence.size(); i++)
+		{
+			writer.write(Long.toString(sequence.getTimestamp(i)));
+			writer.write(',');
+			writer.write(Double.toString(sequence.getFocalX(i)));
+			writer.write(',');
+			writer.write(Double.toString(sequence.getFocalY(i)));
+			writer.write(',');
+			writer.write(Double.toString(sequence.getFocalZ(i)));
+			writer.write(',');
+			writer.write(Double.toString(sequence.getPitch(i)));
+			writer.write(',');
+			writer.write(Double.toString(sequence.getYaw(i)));
+			writer.write(',');
+			writer.write(Integer.toString(sequence.getScale(i)));
+			writer.write(',');
+			writer.write(sequence.getEase(i).name());
+			if (sequence.getEase(i) == EaseType.BEZIER)
+			{
+				BezierEase curve = sequence.getBezier(i);
+				writer.write(',');
+				writer.write(Double.toString(curve.getX1()));
+				writer.write(',');
+				writer.write(Double.toString(curve.getY1()));
+				writer.write(',');
+				writer.write(Double.toString(curve.getX2()));
+				writer.write(',');
+				writer.write(Double.toString(curve.getY2()));
+			}
+			writer.write('\n');
+		}
+	}
+
+	/**
+	 * Reads the text format line by line. A malformed header fails the whole
+	 * read, but a malformed keyframe line is logged and skipped so the rest of
+	 * the sequence still loads.
+	 */
+	public static Sequence read(BufferedReader reader, Client client, KeyframeCameraConfig config) throws IOException
+	{
+		Sequence sequence = new Sequence(client, config);
+		LineTokenizer tokenizer = new LineTokenizer();
+
+		String line = reader.readLine();
+		if (line == null)
+		{
+			throw new SequenceFormatException(1, "missing header");
+		}
+
+		tokenizer.reset(line, 1);
+		sequence.setBaseX(tokenizer.nextInt());
+		sequence.setBaseZ(tokenizer.nextInt());
+		sequence.setPreserveLocation(tokenizer.nextBoolean());
+		if (tokenizer.hasMore())
+		{
+			sequence.setInterpolation(tokenizer.nextEnum(INTERPOLATION_MODES, "interpolation mode"));
+		}
+		if (tokenizer.hasMore())
+		{
+			sequence.setConstantSpeed(tokenizer.nextBoolean());
+		}
+		tokenizer.end();
+
+		int lineNumber = 1;
+		while ((line = reader.readLine()) != null)
+		{
+			lineNumber++;
+			if (line.isEmpty())
+			{
+				continue;
+			}
+
+			try
+			{
+				tokenizer.reset(line, lineNumber);
+				long ms = tokenizer.nextLong();
+				double focalX = tokenizer.nextDouble();
+				double focalY = tokenizer.nextDouble();
+				double focalZ = tokenizer.nextDouble();
+				double pitch = tokenizer.nextDouble();
+				double yaw = tokenizer.nextDouble();
+				int scale = tokenizer.nextInt();
+				EaseType ease = tokenizer.nextEnum(EASE_TYPES, "easing type");
+				BezierEase curve = ease == EaseType.BEZIER ? tokenizer.nextBezier() : null;
+				tokenizer.end();
+
+				sequence.add(ms, focalX, focalY, focalZ, pitch, yaw, scale, ease, curve);
+			}
+			catch (SequenceFormatException e)
+			{
+				log.warn("Skipping keyframe: {}", e.getMessage());
+			}
+		}
+
+		return sequence;
+	}
+
+	/**
+	 * Splits one line into comma-separated fields without allocating for
+	 * anything but decimal values.
+	 */
+	private static final class LineTokenizer
+	{
+		private String line;
+		private int lineNumber;
+		private int position;
+		private int field;
+
+		void reset(String line, int lineNumber)
+		{
+			this.line = line;
+			this.lineNumber = lineNumber;
+			this.position = 0;
+			this.field = 0;
+		}
+
+		private int nextEnd() throws SequenceFormatException
+		{
+			if (position > line.length())
+			{
+				throw error("expected more fields");
+			}
+			field++;
+			int end = line.indexOf(',', position);
+			return end == -1 ? line.length() : end;
+		}
+
+		long nextLong() throws SequenceFormatException
+		{
+			int end = nextEnd();
+			int i = position;
+			boolean negative = i < end && line.charAt(i) == '-';
+			if (negative)
+			{
+				i++;
+			}
+			if (i == end)
+			{
+				throw error("expected an integer");
+			}
+
+			long value = 0;
+			for (; i < end; i++)
+			{
+				int digit = line.charAt(i) - '0';
+				if (digit < 0 || digit > 9 || value > (Long.MAX_VALUE - digit) / 10)
+				{
+					throw error("expected an integer");
+				}
+				value = value * 10 + digit;
+			}
+			position = end + 1;
+			return negative ? -value : value;
+		}
+
+		int nextInt() throws SequenceFormatException
+		{
+			long value = nextLong();
+			if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+			{
+				field--;
+				throw error("integer out of range");
+			}
+			return (int) value;
+		}
+
+		double nextDouble() throws SequenceFormatException
+		{
+			int end = nextEnd();
+			try
+			{
+				double value = Double.parseDouble(line.substring(position, end));
+				position = end + 1;
+				return value;
+			}
+			catch (NumberFormatException e)
+			{
+				throw error("expected a number");
+			}
+		}
+
+		boolean nextBoolean() throws SequenceFormatException
+		{
+			int end = nextEnd();
+			int length = end - position;
+			boolean value = length == 4 && line.regionMatches(true, position, "true", 0, length);
+			if (!value && !(length == 5 && line.regionMatches(true, position, "false", 0, length)))
+			{
+				throw error("expected true or false");
+			}
+			position = end + 1;
+			return value;
+		}
+
+		<E extends Enum<E>> E nextEnum(E[] values, String description) throws SequenceFormatException
+		{
+			int end = nextEnd();
+			for (E value : values)
+			{
+				String name = value.name();
+				if (name.length() == end - position && line.startsWith(name, position))
+				{
+					position = end + 1;
+					return value;
+				}
+			}
+			throw error("unknown " + description);
+		}
+
+		BezierEase nextBezier() throws SequenceFormatException
+		{
+			double x1 = nextDouble();
+			double y1 = nextDouble();
+			double x2 = nextDouble();
+			double y2 = nextDouble();
+			try
+			{
+				return BezierEase.of(x1, y1, x2, y2);
+			}
+			catch (IllegalArgumentException e)
+			{
+				throw error("invalid bezier curve");
+			}
+		}
+
+		boolean hasMore()
+		{
+			return position <= line.length();
+		}
+
+		void end() throws SequenceFormatException
+		{
+			if (hasMore())
+			{
+				throw error("unexpected extra fields");
+			}
+		}
+
+		private SequenceFormatException error(String message)
+		{
+			return new SequenceFormatException(lineNumber, message + " (field " + field + ")");
+		}
+	}
+
+	public static ByteBuffer serializeBinary(Sequence sequence)
+	{
+		int count = sequence.size();
+		int curves = 0;
+		for (int i = 0; i < count; i++)
+		{
+			if (sequence.getEase(i) == EaseType.BEZIER)
+			{
+				curves++;
+			}
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + count * RECORD_SIZE + curves * CURVE_SIZE);
+
+		buffer.putInt(MAGIC);
+		buffer.putShort(FORMAT_VERSION);
+		int flags = sequence.isPreserveLocation() ? FLAG_PRESERVE_LOCATION : 0;
+		flags |= sequence.getInterpolation().ordinal() << INTERPOLATION_SHIFT;
+		if (sequence.isConstantSpeed())
+		{
+			flags |= FLAG_CONSTANT_SPEED;
+		}
+		buffer.putShort((short) flags);
+		buffer.putInt(sequence.getBaseX());
+		buffer.putInt(sequence.getBaseZ());
+		buffer.putInt(count);
+
+		for (int i = 0; i < count; i++)
+		{
+			buffer.putLong(sequence.getTimestamp(i));
+		}
+		for (int i = 0; i < count; i++)
+		{
+			buffer.putDouble(sequence.getFocalX(i));
+		}
+		for (int i = 0; i < count; i++)
+		{
+			buffer.putDouble(sequence.getFocalY(i));
+		}
+		for (int i = 0; i < count; i++)
+		{
+			buffer.putDouble(sequence.getFocalZ(i));
+		}
+		for (int i = 0; i < count; i++)
+		{
+			buffer.putDouble(sequence.getPitch(i));
+		}
+		for (int i = 0; i < count; i++)
+		{
+			buffer.putDouble(sequence.getYaw(i));
+		}
+		for (int i = 0; i < count; i++)
+		{
+			buffer.putInt(sequence.getScale(i));
+		}
+		for (int i = 0; i < count; i++)
+		{
+			buffer.put((byte) sequence.getEase(i).ordinal());
+		}
+		for (int i = 0; i < count; i++)
+		{
+			if (sequence.getEase(i) == EaseType.BEZIER)
+			{
+				BezierEase curve = sequence.getBezier(i);
+				buffer.putDouble(curve.getX1());
+				buffer.putDouble(curve.getY1());
+				buffer.putDouble(curve.getX2());
+				buffer.putDouble(curve.getY2());
+			}
+		}
+
+		buffer.flip();
+		return buffer;
+	}
+
+	public static Sequence deserializeBinary(ByteBuffer buffer, Client client, KeyframeCameraConfig config) throws IOException
+	{
+		if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC)
+		{
+			throw new IOException("Not a binary sequence file");
+		}
+
+		short version = buffer.getShort();
+		if (version < 1 || version > FORMAT_VERSION)
+		{
+			throw new IOException("Unsupported sequence format version " + version);
+		}
+
+		short flags = buffer.getShort();
+		int baseX = buffer.getInt();
+		int baseZ = buffer.getInt();
+		int count = buffer.getInt();
+		if (count < 0 || buffer.remaining() < (long) count * RECORD_SIZE)
+		{
+			throw new IOException("Sequence file is truncated");
+		}
+
+		long[] timestamps = new long[count];
+		double[] focalX = new double[count];
+		double[] focalY = new double[count];
+		double[] focalZ = new double[count];
+		double[] pitch = new double[count];
+		double[] yaw = new double[count];
+		int[] scale = new int[count];
+		byte[] ease = new byte[count];
+
+		readLongs(buffer, timestamps);
+		readDoubles(buffer, focalX);
+		readDoubles(buffer, focalY);
+		readDoubles(buffer, focalZ);
+		readDoubles(buffer, pitch);
+		readDoubles(buffer, yaw);
+		buffer.asIntBuffer().get(scale);
+		buffer.position(buffer.position() + count * Integer.BYTES);
+		buffer.get(ease);
+
 		Sequence sequence = new Sequence(client, config);
+		sequence.setBaseX(baseX);
+		sequence.setBaseZ(baseZ);
+		sequence.setPreserveLocation((flags & FLAG_PRESERVE_LOCATION) != 0);
+
+		int interpolation = (flags >> INTERPOLATION_SHIFT) & INTERPOLATION_MASK;
+		if (interpolation >= INTERPOLATION_MODES.length)
+		{
+			throw new IOException("Unknown interpolation mode " + interpolation);
+		}
+		sequence.setInterpolation(INTERPOLATION_MODES[interpolation]);
+		sequence.setConstantSpeed((flags & FLAG_CONSTANT_SPEED) != 0);
+
+		// Version 1 predates BEZIER and has no curves after the columns
+		int easeTypes = version == 1 ? EaseType.BEZIER.ordinal() : EASE_TYPES.length;
+		for (int i = 0; i < count; i++)
+		{
+			if (ease[i] < 0 || ease[i] >= easeTypes)
+			{
+				throw new IOException("Unknown easing type " + ease[i] + " at keyframe " + i);
+			}
 
-		String[] lines = data.split("\n");
-
-		String[] base = lines[0].split(",");
-		sequence.setBaseX(Integer.parseInt(base[0]));
-		sequence.setBaseZ(Integer.parseInt(base[1]));
-		sequence.setPreserveLocation(Boolean.parseBoolean(base[2]));
-
-		for (int i = 1; i < lines.length; i++)
-		{
-			String[] parts = lines[i].split(",");
-            long ms = Long.parseLong(parts[0]);
-            double focalX = Double.parseDouble(parts[1]);
-            double focalY = Double.parseDouble(parts[2]);
-            double focalZ = Double.parseDouble(parts[3]);
-            double pitch = Double.parseDouble(parts[4]);
-            double yaw = Double.parseDouble(parts[5]);
-            int scale = Integer.parseInt(parts[6]);
-            EaseType ease = EaseType.valueOf(parts[7]);
-
-            Keyframe keyframe = new Keyframe(focalX, focalY, focalZ, pitch, yaw, scale, ease);
-            sequence.add(keyframe, ms);
-        }
-
-        return sequence;
-    }
-
-    public static boolean save(Sequence sequence, String filename)
-    {
-        try
-        {
-            Files.write(Paths.get(filename), serialize(sequence).getBytes());
-            return true;
-        }
-        catch (IOException ignored)
-        {
-            return false;
-        }
-    }
+			BezierEase curve = null;
+			if (EASE_TYPES[ease[i]] == EaseType.BEZIER)
+			{
+				if (buffer.remaining() < CURVE_SIZE)
+				{
+					throw new IOException("Sequence file is truncated");
+				}
+				try
+				{
+					curve = BezierEase.of(buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+				}
+				catch (IllegalArgumentException e)
+				{
+					throw new IOException("Invalid bezier curve at keyframe " + i);
+				}
+			}
+			sequence.add(timestamps[i], focalX[i], focalY[i], focalZ[i], pitch[i], yaw[i], scale[i], EASE_TYPES[ease[i]], curve);
+		}
+
+		return sequence;
+	}
+
+	private static void readLongs(ByteBuffer buffer, long[] column)
+	{
+		buffer.asLongBuffer().get(column);
+		buffer.position(buffer.position() + column.length * Long.BYTES);
+	}
+
+	private static void readDoubles(ByteBuffer buffer, double[] column)
+	{
+		buffer.asDoubleBuffer().get(column);
+		buffer.position(buffer.position() + column.length * Double.BYTES);
+	}
+
+	/**
+	 * Reads just enough of a saved sequence to describe it. Binary files are
+	 * mapped and only their header and last timestamp are touched; text files
+	 * are streamed once without building any keyframes.
+	 */
+	public static SequenceInfo readInfo(Path path) throws IOException
+	{
+		String name = path.getFileName().toString();
+		long lastModified = Files.getLastModifiedTime(path).toMillis();
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+		{
+			ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+			channel.read(magic, 0);
+
+			if (!magic.hasRemaining() && magic.getInt(0) == MAGIC)
+			{
+				return binaryInfo(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), name, null, lastModified);
+			}
+
+			BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), -1));
+			LineTokenizer tokenizer = new LineTokenizer();
+
+			String line = reader.readLine();
+			if (line == null)
+			{
+				throw new SequenceFormatException(1, "missing header");
+			}
+			tokenizer.reset(line, 1);
+			int baseX = tokenizer.nextInt();
+			int baseZ = tokenizer.nextInt();
+			boolean preserveLocation = tokenizer.nextBoolean();
+
+			int count = 0;
+			long duration = 0;
+			int lineNumber = 1;
+			while ((line = reader.readLine()) != null)
+			{
+				lineNumber++;
+				if (line.isEmpty())
+				{
+					continue;
+				}
+				try
+				{
+					tokenizer.reset(line, lineNumber);
+					duration = Math.max(duration, tokenizer.nextLong());
+					count++;
+				}
+				catch (SequenceFormatException ignored)
+				{
+					// Skipped on load too
+				}
+			}
+
+			return new SequenceInfo(name, null, count, duration, baseX, baseZ, preserveLocation, lastModified);
+		}
+	}
+
+	private static SequenceInfo binaryInfo(ByteBuffer data, String name, String archive, long lastModified) throws IOException
+	{
+		if (data.limit() < HEADER_SIZE || data.getShort(4) < 1 || data.getShort(4) > FORMAT_VERSION)
+		{
+			throw new IOException("Unsupported or truncated sequence file");
+		}
+
+		int count = data.getInt(16);
+		long lastTimestamp = HEADER_SIZE + (long) (count - 1) * Long.BYTES;
+		if (count < 0 || lastTimestamp + Long.BYTES > data.limit())
+		{
+			throw new IOException("Sequence file is truncated");
+		}
+
+		long duration = count > 0 ? data.getLong((int) lastTimestamp) : 0;
+		boolean preserveLocation = (data.getShort(6) & FLAG_PRESERVE_LOCATION) != 0;
+		return new SequenceInfo(name, archive, count, duration, data.getInt(8), data.getInt(12), preserveLocation, lastModified);
+	}
+
+	/**
+	 * Summaries of every sequence in an archive, reading only each entry's header.
+	 */
+	public static List<SequenceInfo> readArchiveInfo(Path path) throws IOException
+	{
+		String archiveName = path.getFileName().toString();
+		long lastModified = Files.getLastModifiedTime(path).toMillis();
+
+		try (SequenceArchive archive = SequenceArchive.open(path, false))
+		{
+			List<SequenceInfo> infos = new ArrayList<>();
+			for (SequenceArchive.Entry entry : archive.getEntries())
+			{
+				infos.add(binaryInfo(archive.map(entry), entry.getName(), archiveName, lastModified));
+			}
+			return infos;
+		}
+	}
+
+	public static boolean saveToArchive(Sequence sequence, Path path, String name)
+	{
+		SequenceIOEvent event = SequenceIOEvent.start("save", path, name);
+		boolean success = false;
+		try (SequenceArchive archive = SequenceArchive.open(path, true))
+		{
+			ByteBuffer data = serializeBinary(sequence);
+			event.bytes = data.remaining();
+			archive.append(name, data);
+			success = true;
+		}
+		catch (IOException e)
+		{
+			log.warn("Failed to save sequence {} to {}", name, path, e);
+		}
+		event.end(path, sequence, success);
+		return success;
+	}
+
+	public static Sequence loadFromArchive(Path path, String name, Client client, KeyframeCameraConfig config)
+	{
+		SequenceIOEvent event = SequenceIOEvent.start("load", path, name);
+		Sequence sequence = null;
+		try (SequenceArchive archive = SequenceArchive.open(path, false))
+		{
+			ByteBuffer data = archive.read(name);
+			event.bytes = data.remaining();
+			sequence = deserializeBinary(data, client, config);
+		}
+		catch (IOException e)
+		{
+			log.warn("Failed to load sequence {} from {}", name, path, e);
+		}
+		event.end(path, sequence, sequence != null);
+		return sequence;
+	}
+
+	public static boolean save(Sequence sequence, String filename, SequenceFormat format)
+	{
+		Path path = Paths.get(filename);
+		SequenceIOEvent event = SequenceIOEvent.start("save", path, null);
+		boolean success = false;
+		try
+		{
+			if (format == SequenceFormat.TEXT)
+			{
+				try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8))
+				{
+					write(sequence, writer);
+				}
+			}
+			else
+			{
+				ByteBuffer data = serializeBinary(sequence);
+				event.bytes = data.remaining();
+				try (FileChannel channel = FileChannel.open(path,
+					StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+				{
+					while (data.hasRemaining())
+					{
+						channel.write(data);
+					}
+				}
+			}
+			success = true;
+		}
+		catch (IOException e)
+		{
+			log.warn("Failed to save sequence to {}", filename, e);
+		}
+		event.end(path, sequence, success);
+		return success;
+	}
 
 	public static Sequence load(String filename, Client client, KeyframeCameraConfig config)
-    {
-        try
-        {
-			return deserialize(new String(Files.readAllBytes(Paths.get(filename))), client, config);
-        }
-        catch (IOException ignored)
-        {
-            return null;
-        }
-    }
+	{
+		Path path = Paths.get(filename);
+		SequenceIOEvent event = SequenceIOEvent.start("load", path, null);
+		Sequence sequence = null;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+		{
+			event.bytes = channel.size();
+			ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+			channel.read(magic, 0);
+
+			if (!magic.hasRemaining() && magic.getInt(0) == MAGIC)
+			{
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+				sequence = deserializeBinary(buffer, client, config);
+			}
+			else
+			{
+				BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), -1));
+				sequence = read(reader, client, config);
+			}
+		}
+		catch (IOException e)
+		{
+			log.warn("Failed to load sequence from {}", filename, e);
+		}
+		event.end(path, sequence, sequence != null);
+		return sequence;
+	}
 
 }
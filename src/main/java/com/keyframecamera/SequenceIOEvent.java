@@ -0,0 +1,80 @@
+package com.keyframecamera;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A sequence being saved or loaded, lasting as long as the file I/O.
+ */
+@Name("com.keyframecamera.SequenceIO")
+@Label("Sequence I/O")
+@Category({"Keyframe Camera", "I/O"})
+class SequenceIOEvent extends Event
+{
+	@Label("Operation")
+	String operation;
+
+	@Label("Path")
+	String path;
+
+	@Label("Entry")
+	String entry;
+
+	@Label("Size")
+	@DataAmount(DataAmount.BYTES)
+	long bytes = -1;
+
+	@Label("Keyframes")
+	int keyframes;
+
+	@Label("Success")
+	boolean success;
+
+	static SequenceIOEvent start(String operation, Path path, String entry)
+	{
+		SequenceIOEvent event = new SequenceIOEvent();
+		event.begin();
+		if (event.isEnabled())
+		{
+			event.operation = operation;
+			event.path = path.toString();
+			event.entry = entry;
+		}
+		return event;
+	}
+
+	/**
+	 * Commits the event if it is being recorded. When the size wasn't set it
+	 * is read from the file.
+	 */
+	void end(Path file, Sequence sequence, boolean success)
+	{
+		end();
+		if (!shouldCommit())
+		{
+			return;
+		}
+
+		this.success = success;
+		keyframes = sequence != null ? sequence.size() : 0;
+		if (bytes < 0)
+		{
+			bytes = 0;
+			try
+			{
+				bytes = success ? Files.size(file) : 0;
+			}
+			catch (IOException e)
+			{
+				// Left as zero
+			}
+		}
+		commit();
+	}
+}
@@ -0,0 +1,32 @@
+package com.keyframecamera;
+
+import lombok.Getter;
+
+/**
+ * Summary of a saved sequence file, read without loading its keyframes.
+ */
+@Getter
+public class SequenceInfo
+{
+	private final String name;
+	// Archive file holding this sequence, or null if it is a file of its own
+	private final String archive;
+	private final int keyframeCount;
+	private final long duration;
+	private final int baseX;
+	private final int baseZ;
+	private final boolean preserveLocation;
+	private final long lastModified;
+
+	public SequenceInfo(String name, String archive, int keyframeCount, long duration, int baseX, int baseZ, boolean preserveLocation, long lastModified)
+	{
+		this.name = name;
+		this.archive = archive;
+		this.keyframeCount = keyframeCount;
+		this.duration = duration;
+		this.baseX = baseX;
+		this.baseZ = baseZ;
+		this.preserveLocation = preserveLocation;
+		this.lastModified = lastModified;
+	}
+}
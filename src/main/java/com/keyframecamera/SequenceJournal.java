@@ -0,0 +1,508 @@
+package com.keyframecamera;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import javax.swing.SwingUtilities;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+
+/**
+ * Autosave for the sequence being edited: a binary snapshot plus an append-only
+ * journal of the edits made since. Each edit is encoded as a small record when
+ * it happens and records are flushed to disk in batches, so the bytes written
+ * per edit don't depend on the sequence length. Once the journal outgrows the
+ * snapshot it is compacted into a new snapshot in the background.
+ * <p>
+ * The journal header holds the CRC of the snapshot it applies to. A crash
+ * between writing a new snapshot and resetting the journal leaves a journal
+ * whose CRC doesn't match, and that journal is ignored because the snapshot
+ * already contains its edits.
+ * <p>
+ * Each snapshot has a generation. Records made after a snapshot is taken are
+ * held back until that snapshot's journal has been started, so they are never
+ * written to a journal that's about to be replaced. If writing fails, a new
+ * snapshot is taken rather than dropping the records.
+ * <p>
+ * Edits arrive on the EDT; all file access happens on the I/O executor.
+ */
+@Slf4j
+class SequenceJournal implements SequenceListener
+{
+	static final String SNAPSHOT_NAME = ".autosave" + SequenceFormat.BINARY.getExtension();
+	static final String JOURNAL_NAME = ".autosave.journal";
+
+	private static final int JOURNAL_MAGIC = 0x4B464A4E; // "KFJN"
+	private static final int JOURNAL_VERSION = 1;
+	private static final int HEADER_SIZE = 16;
+
+	private static final byte ADD = 1;
+	private static final byte REMOVE = 2;
+	private static final byte SWAP = 3;
+	private static final byte CHANGE = 4;
+	private static final byte SETTINGS = 5;
+
+	// Followed by the curve's four control point coordinates for BEZIER keyframes
+	private static final int KEYFRAME_SIZE = 5 * Double.BYTES + Integer.BYTES + Byte.BYTES;
+	private static final int CURVE_SIZE = 4 * Double.BYTES;
+	private static final long FLUSH_INTERVAL_MS = 500;
+	private static final long MIN_COMPACT_BYTES = 64 * 1024;
+
+	private final Path snapshotPath;
+	private final Path journalPath;
+	private final ScheduledExecutorService executor;
+	private final ScheduledFuture<?> flushTask;
+
+	// Guarded by this; written on the EDT and drained by the I/O thread
+	private Sequence sequence;
+	private ByteBuffer pending = ByteBuffer.allocate(4096);
+	private long journalBytes;
+	private long snapshotBytes;
+	private int baseX;
+	private int baseZ;
+	private boolean preserveLocation;
+	private InterpolationMode interpolation;
+	private boolean constantSpeed;
+	// Latest snapshot taken, and the latest whose journal has been started
+	private int generation;
+	private int writtenGeneration;
+	private boolean snapshotRequested;
+
+	// I/O thread only
+	private ByteBuffer draining = ByteBuffer.allocate(4096);
+	private FileChannel journal;
+
+	SequenceJournal(Path directory, ScheduledExecutorService executor)
+	{
+		this.snapshotPath = directory.resolve(SNAPSHOT_NAME);
+		this.journalPath = directory.resolve(JOURNAL_NAME);
+		this.executor = executor;
+		this.flushTask = executor.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Rebuilds the autosaved sequence from the snapshot and journal, or returns
+	 * null if there is nothing to recover. Must be called on the I/O executor
+	 * before {@link #attach}, which replaces both files.
+	 */
+	Sequence recover(Client client, KeyframeCameraConfig config) throws IOException
+	{
+		if (!Files.exists(snapshotPath))
+		{
+			return null;
+		}
+
+		byte[] snapshot = Files.readAllBytes(snapshotPath);
+		Sequence sequence = SequenceIO.deserializeBinary(ByteBuffer.wrap(snapshot), client, config);
+
+		if (!Files.exists(journalPath))
+		{
+			return sequence;
+		}
+
+		ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(journalPath));
+		if (buffer.remaining() < HEADER_SIZE
+			|| buffer.getInt() != JOURNAL_MAGIC
+			|| buffer.getInt() != JOURNAL_VERSION
+			|| buffer.getLong() != crc(snapshot))
+		{
+			return sequence;
+		}
+
+		int replayed = 0;
+		try
+		{
+			while (buffer.hasRemaining())
+			{
+				replay(buffer, sequence);
+				replayed++;
+			}
+		}
+		catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e)
+		{
+			// A crash mid-write leaves a partial record at the end; everything before it is intact
+			log.debug("Stopped journal replay after {} records", replayed, e);
+		}
+
+		return sequence;
+	}
+
+	private static void replay(ByteBuffer buffer, Sequence sequence)
+	{
+		byte type = buffer.get();
+		switch (type)
+		{
+			case ADD:
+			{
+				long timestamp = buffer.getLong();
+				double focalX = buffer.getDouble();
+				double focalY = buffer.getDouble();
+				double focalZ = buffer.getDouble();
+				double pitch = buffer.getDouble();
+				double yaw = buffer.getDouble();
+				int scale = buffer.getInt();
+				EaseType ease = easeOf(buffer.get());
+				sequence.add(timestamp, focalX, focalY, focalZ, pitch, yaw, scale, ease, curveOf(ease, buffer));
+				break;
+			}
+			case REMOVE:
+				sequence.remove(sequence.get(buffer.getInt()));
+				break;
+			case SWAP:
+				sequence.swap(sequence.get(buffer.getInt()), sequence.get(buffer.getInt()));
+				break;
+			case CHANGE:
+			{
+				int index = buffer.getInt();
+				long duration = buffer.getLong();
+				double focalX = buffer.getDouble();
+				double focalY = buffer.getDouble();
+				double focalZ = buffer.getDouble();
+				double pitch = buffer.getDouble();
+				double yaw = buffer.getDouble();
+				int scale = buffer.getInt();
+				EaseType ease = easeOf(buffer.get());
+				sequence.restore(index, duration, focalX, focalY, focalZ, pitch, yaw, scale, ease, curveOf(ease, buffer));
+				break;
+			}
+			case SETTINGS:
+				sequence.setBaseX(buffer.getInt());
+				sequence.setBaseZ(buffer.getInt());
+				sequence.setPreserveLocation(buffer.get() != 0);
+				sequence.setInterpolation(InterpolationMode.values()[buffer.get()]);
+				sequence.setConstantSpeed(buffer.get() != 0);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown journal record " + type);
+		}
+	}
+
+	private static EaseType easeOf(byte ordinal)
+	{
+		return EaseType.values()[ordinal];
+	}
+
+	private static BezierEase curveOf(EaseType ease, ByteBuffer buffer)
+	{
+		if (ease != EaseType.BEZIER)
+		{
+			return null;
+		}
+		return BezierEase.of(buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+	}
+
+	/**
+	 * Starts journaling the given sequence, replacing whatever was autosaved before.
+	 */
+	synchronized void attach(Sequence sequence)
+	{
+		if (this.sequence != null)
+		{
+			this.sequence.removeListener(this);
+		}
+		this.sequence = sequence;
+		sequence.addListener(this);
+		compact();
+	}
+
+	/**
+	 * Stops journaling and writes out any edits still buffered.
+	 */
+	synchronized void close()
+	{
+		if (sequence != null)
+		{
+			sequence.removeListener(this);
+			sequence = null;
+		}
+		flushTask.cancel(false);
+		executor.execute(() -> {
+			flush();
+			closeJournal();
+		});
+	}
+
+	@Override
+	public synchronized void keyframeAdded(int index)
+	{
+		begin(ADD, Long.BYTES + keyframeSize(index));
+		pending.putLong(sequence.getTimestamp(index));
+		putKeyframe(index);
+		end();
+	}
+
+	@Override
+	public synchronized void keyframeRemoved(int index)
+	{
+		begin(REMOVE, Integer.BYTES);
+		pending.putInt(index);
+		end();
+	}
+
+	@Override
+	public synchronized void keyframesSwapped(int indexA, int indexB)
+	{
+		begin(SWAP, 2 * Integer.BYTES);
+		pending.putInt(indexA);
+		pending.putInt(indexB);
+		end();
+	}
+
+	@Override
+	public synchronized void keyframeChanged(int index)
+	{
+		begin(CHANGE, Integer.BYTES + Long.BYTES + keyframeSize(index));
+		pending.putInt(index);
+		pending.putLong(sequence.getKeyframeDuration(index));
+		putKeyframe(index);
+		end();
+	}
+
+	private void begin(byte type, int size)
+	{
+		// Settings aren't edits the sequence reports, so they're journaled alongside the next edit or flush
+		putSettingsIfChanged();
+		ensurePending(1 + size);
+		pending.put(type);
+	}
+
+	private void end()
+	{
+		if (journalBytes + pending.position() > Math.max(MIN_COMPACT_BYTES, snapshotBytes))
+		{
+			compact();
+		}
+	}
+
+	private void putKeyframe(int index)
+	{
+		pending.putDouble(sequence.getFocalX(index));
+		pending.putDouble(sequence.getFocalY(index));
+		pending.putDouble(sequence.getFocalZ(index));
+		pending.putDouble(sequence.getPitch(index));
+		pending.putDouble(sequence.getYaw(index));
+		pending.putInt(sequence.getScale(index));
+		pending.put((byte) sequence.getEase(index).ordinal());
+		if (sequence.getEase(index) == EaseType.BEZIER)
+		{
+			BezierEase curve = sequence.getBezier(index);
+			pending.putDouble(curve.getX1());
+			pending.putDouble(curve.getY1());
+			pending.putDouble(curve.getX2());
+			pending.putDouble(curve.getY2());
+		}
+	}
+
+	private int keyframeSize(int index)
+	{
+		return KEYFRAME_SIZE + (sequence.getEase(index) == EaseType.BEZIER ? CURVE_SIZE : 0);
+	}
+
+	private void putSettingsIfChanged()
+	{
+		if (sequence.getBaseX() == baseX && sequence.getBaseZ() == baseZ && sequence.isPreserveLocation() == preserveLocation
+			&& sequence.getInterpolation() == interpolation && sequence.isConstantSpeed() == constantSpeed)
+		{
+			return;
+		}
+
+		baseX = sequence.getBaseX();
+		baseZ = sequence.getBaseZ();
+		preserveLocation = sequence.isPreserveLocation();
+		interpolation = sequence.getInterpolation();
+		constantSpeed = sequence.isConstantSpeed();
+
+		ensurePending(1 + 2 * Integer.BYTES + 3);
+		pending.put(SETTINGS);
+		pending.putInt(baseX);
+		pending.putInt(baseZ);
+		pending.put((byte) (preserveLocation ? 1 : 0));
+		pending.put((byte) interpolation.ordinal());
+		pending.put((byte) (constantSpeed ? 1 : 0));
+	}
+
+	private void ensurePending(int bytes)
+	{
+		if (pending.remaining() < bytes)
+		{
+			ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + bytes));
+			pending.flip();
+			grown.put(pending);
+			pending = grown;
+		}
+	}
+
+	/**
+	 * Snapshots the sequence and schedules it to replace the autosave. Buffered
+	 * records are dropped since the snapshot already contains them. Called on
+	 * the EDT, where the sequence is edited.
+	 */
+	private void compact()
+	{
+		Sequence snapshot = sequence.copy();
+		baseX = snapshot.getBaseX();
+		baseZ = snapshot.getBaseZ();
+		preserveLocation = snapshot.isPreserveLocation();
+		interpolation = snapshot.getInterpolation();
+		constantSpeed = snapshot.isConstantSpeed();
+		pending.clear();
+		journalBytes = 0;
+
+		int snapshotGeneration = ++generation;
+		executor.execute(() -> writeSnapshot(snapshot, snapshotGeneration));
+	}
+
+	private synchronized void retrySnapshot()
+	{
+		snapshotRequested = false;
+		if (sequence != null)
+		{
+			compact();
+		}
+	}
+
+	private void writeSnapshot(Sequence snapshot, int snapshotGeneration)
+	{
+		synchronized (this)
+		{
+			// A later snapshot is already queued and replaces this one
+			if (snapshotGeneration != generation)
+			{
+				return;
+			}
+		}
+
+		ByteBuffer data = SequenceIO.serializeBinary(snapshot);
+		byte[] bytes = new byte[data.remaining()];
+		data.get(bytes);
+
+		synchronized (this)
+		{
+			snapshotBytes = bytes.length;
+		}
+
+		try
+		{
+			Path temp = snapshotPath.resolveSibling(SNAPSHOT_NAME + ".tmp");
+			Files.write(temp, bytes);
+			Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+			closeJournal();
+			journal = FileChannel.open(journalPath,
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(JOURNAL_MAGIC);
+			header.putInt(JOURNAL_VERSION);
+			header.putLong(crc(bytes));
+			header.flip();
+			write(header);
+		}
+		catch (IOException e)
+		{
+			log.warn("Failed to write autosave snapshot", e);
+			closeJournal();
+		}
+
+		synchronized (this)
+		{
+			writtenGeneration = snapshotGeneration;
+		}
+		// Write out whatever was edited while the snapshot was being written
+		flush();
+	}
+
+	/**
+	 * Writes out the buffered records. Runs on the I/O executor, every
+	 * {@value #FLUSH_INTERVAL_MS} ms and after each snapshot.
+	 */
+	void flush()
+	{
+		synchronized (this)
+		{
+			if (sequence != null)
+			{
+				putSettingsIfChanged();
+			}
+			if (writtenGeneration != generation)
+			{
+				// The journal for the latest snapshot hasn't been started yet
+				return;
+			}
+			if (journal == null)
+			{
+				// The last write failed; a new snapshot includes the buffered records
+				if (sequence != null && !snapshotRequested)
+				{
+					snapshotRequested = true;
+					SwingUtilities.invokeLater(this::retrySnapshot);
+				}
+				return;
+			}
+			if (pending.position() == 0)
+			{
+				return;
+			}
+
+			journalBytes += pending.position();
+			ByteBuffer drained = pending;
+			pending = draining;
+			draining = drained;
+		}
+
+		draining.flip();
+		try
+		{
+			write(draining);
+		}
+		catch (IOException e)
+		{
+			// The next flush takes a new snapshot, which includes these records
+			log.warn("Failed to write autosave journal", e);
+			closeJournal();
+		}
+		draining.clear();
+	}
+
+	private void write(ByteBuffer buffer) throws IOException
+	{
+		while (buffer.hasRemaining())
+		{
+			journal.write(buffer);
+		}
+		journal.force(false);
+	}
+
+	private void closeJournal()
+	{
+		if (journal == null)
+		{
+			return;
+		}
+		try
+		{
+			journal.close();
+		}
+		catch (IOException e)
+		{
+			log.debug("Failed to close autosave journal", e);
+		}
+		journal = null;
+	}
+
+	private static long crc(byte[] bytes)
+	{
+		CRC32 crc = new CRC32();
+		crc.update(bytes);
+		return crc.getValue();
+	}
+}
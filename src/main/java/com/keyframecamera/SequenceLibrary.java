@@ -0,0 +1,209 @@
+package com.keyframecamera;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Index of the sequences saved in a directory. The directory is scanned once
+ * when the library starts, and after that a {@link WatchService} reports the
+ * files that were created, changed or deleted, so only those are read again.
+ * Entries hold {@link SequenceInfo} summaries, not keyframes. Each sequence in
+ * an archive is listed as its own entry.
+ */
+@Slf4j
+public class SequenceLibrary
+{
+	private final Path directory;
+	// Sequences by the file they're in; an archive file holds several
+	private final Map<String, List<SequenceInfo>> entries = new ConcurrentHashMap<>();
+	private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+	private Thread watcher;
+
+	public SequenceLibrary(Path directory)
+	{
+		this.directory = directory;
+	}
+
+	public void start()
+	{
+		watcher = new Thread(this::run, "keyframe-camera-library");
+		watcher.setDaemon(true);
+		watcher.start();
+	}
+
+	public void stop()
+	{
+		if (watcher != null)
+		{
+			watcher.interrupt();
+			watcher = null;
+		}
+	}
+
+	/**
+	 * Listeners are called on the watcher thread whenever the index changes.
+	 */
+	public void addListener(Runnable listener)
+	{
+		listeners.add(listener);
+	}
+
+	public void removeListener(Runnable listener)
+	{
+		listeners.remove(listener);
+	}
+
+	/**
+	 * All indexed sequences, newest first.
+	 */
+	public List<SequenceInfo> getEntries()
+	{
+		List<SequenceInfo> list = new ArrayList<>();
+		for (List<SequenceInfo> infos : entries.values())
+		{
+			list.addAll(infos);
+		}
+		list.sort(Comparator.comparingLong(SequenceInfo::getLastModified).reversed());
+		return list;
+	}
+
+	private void run()
+	{
+		try (WatchService watchService = directory.getFileSystem().newWatchService())
+		{
+			// Register before scanning so nothing written during the scan is missed
+			directory.register(watchService,
+				StandardWatchEventKinds.ENTRY_CREATE,
+				StandardWatchEventKinds.ENTRY_MODIFY,
+				StandardWatchEventKinds.ENTRY_DELETE);
+			scan();
+			notifyListeners();
+
+			while (!Thread.currentThread().isInterrupted())
+			{
+				WatchKey key = watchService.take();
+				boolean changed = false;
+
+				for (WatchEvent<?> event : key.pollEvents())
+				{
+					if (event.kind() == StandardWatchEventKinds.OVERFLOW)
+					{
+						scan();
+						changed = true;
+						continue;
+					}
+
+					Path path = directory.resolve((Path) event.context());
+					if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE)
+					{
+						changed |= entries.remove(path.getFileName().toString()) != null;
+					}
+					else
+					{
+						changed |= index(path);
+					}
+				}
+
+				if (changed)
+				{
+					notifyListeners();
+				}
+				if (!key.reset())
+				{
+					log.warn("Sequence directory is no longer accessible: {}", directory);
+					return;
+				}
+			}
+		}
+		catch (InterruptedException | ClosedWatchServiceException e)
+		{
+			// Stopped
+		}
+		catch (IOException e)
+		{
+			log.warn("Failed to watch sequence directory {}", directory, e);
+		}
+	}
+
+	private void scan() throws IOException
+	{
+		Set<String> seen = new HashSet<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory))
+		{
+			for (Path path : stream)
+			{
+				seen.add(path.getFileName().toString());
+				index(path);
+			}
+		}
+		entries.keySet().retainAll(seen);
+	}
+
+	/**
+	 * Re-reads one file's summary. Returns whether the index changed.
+	 */
+	private boolean index(Path path)
+	{
+		String name = path.getFileName().toString();
+		if (!isSequenceFile(name) || !Files.isRegularFile(path))
+		{
+			return entries.remove(name) != null;
+		}
+
+		try
+		{
+			entries.put(name, name.endsWith(SequenceFormat.ARCHIVE.getExtension())
+				? SequenceIO.readArchiveInfo(path)
+				: Collections.singletonList(SequenceIO.readInfo(path)));
+			return true;
+		}
+		catch (IOException e)
+		{
+			// Often a file that's still being written; its next modify event will index it
+			log.debug("Skipping unreadable sequence {}", name, e);
+			return entries.remove(name) != null;
+		}
+	}
+
+	private static boolean isSequenceFile(String name)
+	{
+		// Hidden files are the autosave
+		if (name.startsWith("."))
+		{
+			return false;
+		}
+		for (SequenceFormat format : SequenceFormat.values())
+		{
+			if (name.endsWith(format.getExtension()))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void notifyListeners()
+	{
+		for (Runnable listener : listeners)
+		{
+			listener.run();
+		}
+	}
+}
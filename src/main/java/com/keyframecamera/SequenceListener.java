@@ -0,0 +1,26 @@
+package com.keyframecamera;
+
+/**
+ * Notified of edits to a {@link Sequence}, on the thread that made them.
+ */
+public interface SequenceListener
+{
+	default void keyframeAdded(int index)
+	{
+	}
+
+	default void keyframeRemoved(int index)
+	{
+	}
+
+	default void keyframesSwapped(int indexA, int indexB)
+	{
+	}
+
+	/**
+	 * The keyframe's values, ease or duration changed.
+	 */
+	default void keyframeChanged(int index)
+	{
+	}
+}
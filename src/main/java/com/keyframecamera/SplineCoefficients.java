@@ -0,0 +1,204 @@
+package com.keyframecamera;
+
+import java.util.Arrays;
+
+/**
+ * Cubic Hermite coefficients for every segment and channel of a sequence, so
+ * evaluating a spline is a few multiply-adds per channel. Tangents are
+ * estimated from the neighbouring keyframes and their timing. Because of that,
+ * editing a keyframe only affects the segments within two keyframes of it.
+ * Those segments are marked dirty and recomputed the next time the sequence
+ * is sampled.
+ * <p>
+ * Zero-length segments are treated as cuts, and tangents never look across them.
+ */
+class SplineCoefficients
+{
+	private static final int CHANNELS = 6;
+	private static final int YAW = 4;
+	// a + b*u + c*u^2 + d*u^3 for each channel
+	private static final int STRIDE = CHANNELS * 4;
+	private static final double TWO_PI = 2 * Math.PI;
+
+	private double[] coefficients = new double[0];
+	private int dirtyFrom = 0;
+	private int dirtyTo = Integer.MAX_VALUE;
+
+	synchronized void invalidate(int fromSegment, int toSegment)
+	{
+		dirtyFrom = Math.min(dirtyFrom, Math.max(0, fromSegment));
+		dirtyTo = Math.max(dirtyTo, toSegment);
+	}
+
+	void invalidateAll()
+	{
+		invalidate(0, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Called when keyframe {@code index} is removed. The coefficients of the
+	 * segments after it move down one place, as their neighbourhoods are
+	 * unchanged; only the segments that had the removed keyframe within reach
+	 * are invalidated.
+	 */
+	synchronized void remove(int index)
+	{
+		int moved = coefficients.length / STRIDE - index - 1;
+		if (moved > 0)
+		{
+			System.arraycopy(coefficients, (index + 1) * STRIDE, coefficients, index * STRIDE, moved * STRIDE);
+		}
+		invalidate(index - 2, index);
+	}
+
+	/**
+	 * Evaluates segment {@code segment} at {@code u} in [0, 1].
+	 */
+	synchronized void evaluate(Sequence sequence, int segment, double u, CameraSample out)
+	{
+		update(sequence);
+
+		double[] c = coefficients;
+		int o = segment * STRIDE;
+		double yaw = horner(c, o + YAW * 4, u) % TWO_PI;
+
+		out.set(
+			horner(c, o, u),
+			horner(c, o + 4, u),
+			horner(c, o + 8, u),
+			horner(c, o + 12, u),
+			yaw < 0 ? yaw + TWO_PI : yaw,
+			(int) horner(c, o + 20, u)
+		);
+	}
+
+	private static double horner(double[] c, int o, double u)
+	{
+		return c[o] + u * (c[o + 1] + u * (c[o + 2] + u * c[o + 3]));
+	}
+
+	private void update(Sequence sequence)
+	{
+		if (dirtyFrom > dirtyTo)
+		{
+			return;
+		}
+
+		int segments = sequence.size() - 1;
+		if (coefficients.length < segments * STRIDE)
+		{
+			coefficients = Arrays.copyOf(coefficients, Math.max(segments, coefficients.length / STRIDE * 2) * STRIDE);
+		}
+
+		int to = Math.min(dirtyTo, segments - 1);
+		for (int segment = dirtyFrom; segment <= to; segment++)
+		{
+			compute(sequence, segment);
+		}
+
+		dirtyFrom = Integer.MAX_VALUE;
+		dirtyTo = -1;
+	}
+
+	private void compute(Sequence sequence, int segment)
+	{
+		InterpolationMode mode = sequence.getInterpolation();
+		int last = sequence.size() - 1;
+		double duration = sequence.getKeyframeDuration(segment);
+		double previousDuration = segment > 0 ? sequence.getKeyframeDuration(segment - 1) : 0;
+		double nextDuration = sequence.getKeyframeDuration(segment + 1);
+
+		for (int channel = 0; channel < CHANNELS; channel++)
+		{
+			double p0 = value(sequence, channel, segment);
+			double p1 = value(sequence, channel, segment + 1);
+			double previous = segment > 0 ? value(sequence, channel, segment - 1) : p0;
+			double next = segment + 1 < last ? value(sequence, channel, segment + 2) : p1;
+
+			if (channel == YAW)
+			{
+				// Take the short way round between each pair of neighbours
+				previous = nearestAngle(p0, previous);
+				p1 = nearestAngle(p0, p1);
+				next = nearestAngle(p1, next);
+			}
+
+			int o = segment * STRIDE + channel * 4;
+			coefficients[o] = p0;
+			if (duration <= 0)
+			{
+				coefficients[o + 1] = p1 - p0;
+				coefficients[o + 2] = 0;
+				coefficients[o + 3] = 0;
+				continue;
+			}
+
+			// Tangents are per millisecond; scaling by the duration maps them onto u
+			double m0 = duration * tangent(mode, previous, previousDuration, p0, p1, duration);
+			double m1 = duration * tangent(mode, p0, duration, p1, next, nextDuration);
+
+			coefficients[o + 1] = m0;
+			coefficients[o + 2] = 3 * (p1 - p0) - 2 * m0 - m1;
+			coefficients[o + 3] = 2 * (p0 - p1) + m0 + m1;
+		}
+	}
+
+	private static double tangent(InterpolationMode mode, double previous, double previousDuration, double value, double next, double nextDuration)
+	{
+		boolean hasPrevious = previousDuration > 0;
+		boolean hasNext = nextDuration > 0;
+		if (!hasPrevious && !hasNext)
+		{
+			return 0;
+		}
+		if (!hasPrevious)
+		{
+			return (next - value) / nextDuration;
+		}
+		if (!hasNext)
+		{
+			return (value - previous) / previousDuration;
+		}
+
+		if (mode == InterpolationMode.CATMULL_ROM)
+		{
+			return (next - previous) / (previousDuration + nextDuration);
+		}
+
+		// Monotone: flat at local extremes, otherwise a weighted harmonic mean of the
+		// neighbouring slopes, which keeps each segment within its endpoint values
+		double before = (value - previous) / previousDuration;
+		double after = (next - value) / nextDuration;
+		if (before * after <= 0)
+		{
+			return 0;
+		}
+		double w1 = 2 * nextDuration + previousDuration;
+		double w2 = nextDuration + 2 * previousDuration;
+		return (w1 + w2) / (w1 / before + w2 / after);
+	}
+
+	private static double value(Sequence sequence, int channel, int index)
+	{
+		switch (channel)
+		{
+			case 0:
+				return sequence.getFocalX(index);
+			case 1:
+				return sequence.getFocalY(index);
+			case 2:
+				return sequence.getFocalZ(index);
+			case 3:
+				return sequence.getPitch(index);
+			case YAW:
+				return sequence.getYaw(index);
+			default:
+				return sequence.getScale(index);
+		}
+	}
+
+	private static double nearestAngle(double reference, double angle)
+	{
+		return angle - TWO_PI * Math.round((angle - reference) / TWO_PI);
+	}
+}
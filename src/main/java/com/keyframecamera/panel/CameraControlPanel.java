@@ -3,23 +3,25 @@ package com.keyframecamera.panel;
 import com.formdev.flatlaf.icons.FlatFileViewDirectoryIcon;
 import com.formdev.flatlaf.icons.FlatFileViewFileIcon;
 import com.formdev.flatlaf.icons.FlatFileViewFloppyDriveIcon;
+import com.keyframecamera.InterpolationMode;
 import com.keyframecamera.KeyframeCameraConfig;
 import com.keyframecamera.KeyframeCameraPlugin;
 import com.keyframecamera.Playback;
 import com.keyframecamera.Sequence;
+import com.keyframecamera.SequenceListener;
 import java.awt.BorderLayout;
 import java.awt.FlowLayout;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
-import java.io.File;
-import java.nio.file.Paths;
 import javax.swing.BorderFactory;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
-import javax.swing.JFileChooser;
+import javax.swing.JComboBox;
+import javax.swing.JDialog;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 import javax.swing.border.EmptyBorder;
 import net.runelite.api.Client;
 import net.runelite.api.GameState;
@@ -27,7 +29,7 @@ import net.runelite.client.ui.ColorScheme;
 import net.runelite.client.ui.PluginPanel;
 import net.runelite.client.util.ImageUtil;
 
-public class CameraControlPanel extends PluginPanel
+public class CameraControlPanel extends PluginPanel implements SequenceListener
 {
 
 	private final KeyframeCameraPlugin plugin;
@@ -52,7 +54,10 @@ public class CameraControlPanel extends PluginPanel
 
 	private final JCheckBox preserveLocationCheckbox = new JCheckBox("Preserve Location");
 	private final JCheckBox loopCheckbox = new JCheckBox("Loop");
+	private final JCheckBox constantSpeedCheckbox = new JCheckBox("Constant Speed");
+	private final JComboBox<InterpolationMode> interpolationComboBox = new JComboBox<>(InterpolationMode.values());
 
+	private final TimelinePanel timelinePanel;
 	private final KeyframePanel keyframesPanel;
 	private static final ImageIcon PLAY_ICON;
 	private static final ImageIcon PAUSE_ICON;
@@ -91,10 +96,16 @@ public class CameraControlPanel extends PluginPanel
 		contentPanel.setLayout(new GridBagLayout());
 		add(contentPanel, BorderLayout.CENTER);
 
+		timelinePanel = new TimelinePanel(plugin, playback);
 		keyframesPanel = new KeyframePanel(plugin, playback);
 
 		addControls();
+		contentPanel.add(timelinePanel, c);
+		c.gridy++;
 		contentPanel.add(keyframesPanel, c);
+
+		// After the panels above, so the table has its new rows when controls are updated
+		sequence.addListener(this);
 	}
 
 	private void addControls()
@@ -134,7 +145,7 @@ public class CameraControlPanel extends PluginPanel
 		preserveLocationCheckbox.setSelected(sequence.isPreserveLocation());
 		preserveLocationCheckbox.addActionListener(e -> {
 			sequence.setPreserveLocation(preserveLocationCheckbox.isSelected());
-			updatePanel();
+			updateControls();
 		});
 		preserveLocationCheckbox.setToolTipText(
 			"Attempts to play back the sequence in the same location regardless of player movement.\n" +
@@ -147,23 +158,34 @@ public class CameraControlPanel extends PluginPanel
 		loopCheckbox.setSelected(config.loop());
 		loopCheckbox.addActionListener(e -> {
 			playback.setLoop(loopCheckbox.isSelected());
-			updatePanel();
+			updateControls();
 		});
 
 		controlsPanel.add(loopCheckbox, c);
 		c.gridy++;
 
+		interpolationComboBox.setSelectedItem(sequence.getInterpolation());
+		interpolationComboBox.addActionListener(e -> sequence.setInterpolation((InterpolationMode) interpolationComboBox.getSelectedItem()));
+		interpolationComboBox.setToolTipText("How the camera moves between keyframes");
+
+		controlsPanel.add(interpolationComboBox, c);
+		c.gridy++;
+
+		constantSpeedCheckbox.setSelected(sequence.isConstantSpeed());
+		constantSpeedCheckbox.addActionListener(e -> sequence.setConstantSpeed(constantSpeedCheckbox.isSelected()));
+		constantSpeedCheckbox.setToolTipText(
+			"Moves the camera at a steady speed along the path, retiming the keyframes in between.\n" +
+				"Keyframes where the camera stops or cuts keep their timing."
+		);
+
+		controlsPanel.add(constantSpeedCheckbox, c);
+		c.gridy++;
+
 		addKeyframeButton.setText("Add Keyframe");
 		addKeyframeButton.addActionListener(e -> {
-			int newKeyframeIndex = sequence.add();
-			if (newKeyframeIndex == -1)
-			{
-				return;
-			}
-			keyframesPanel.addKeyframe(newKeyframeIndex);
-			updatePanel();
+			sequence.add();
 		});
-		addKeyframeButton.setEnabled(!config.playing());
+		addKeyframeButton.setEnabled(!playback.isPlaying());
 
 		controlsPanel.add(addKeyframeButton, c);
 		c.gridy++;
@@ -176,7 +198,7 @@ public class CameraControlPanel extends PluginPanel
 	{
 		playButton.setIcon(PLAY_ICON);
 		playButton.addActionListener(e -> {
-			if (config.paused())
+			if (playback.isPaused())
 			{
 				playback.togglePause();
 			}
@@ -185,7 +207,7 @@ public class CameraControlPanel extends PluginPanel
 				playback.play();
 			}
 		});
-		playButton.setEnabled((!config.playing() || config.paused()) && sequence.getKeyframes().size() >= 2 && loggedIn());
+		playButton.setEnabled((!playback.isPlaying() || playback.isPaused()) && sequence.size() >= 2 && loggedIn());
 		panel.add(playButton);
 	}
 
@@ -193,7 +215,7 @@ public class CameraControlPanel extends PluginPanel
 	{
 		pauseButton.setIcon(PAUSE_ICON);
 		pauseButton.addActionListener(e -> playback.togglePause());
-		pauseButton.setEnabled(config.playing() && !config.paused() && loggedIn());
+		pauseButton.setEnabled(playback.isPlaying() && !playback.isPaused() && loggedIn());
 		panel.add(pauseButton);
 	}
 
@@ -201,7 +223,7 @@ public class CameraControlPanel extends PluginPanel
 	{
 		stopButton.setIcon(STOP_ICON);
 		stopButton.addActionListener(e -> playback.stop());
-		stopButton.setEnabled(config.playing() && loggedIn());
+		stopButton.setEnabled(playback.isPlaying() && loggedIn());
 		panel.add(stopButton);
 	}
 
@@ -210,7 +232,6 @@ public class CameraControlPanel extends PluginPanel
 		newButton.setIcon(new FlatFileViewFileIcon());
 		newButton.addActionListener(e -> {
 			plugin.wipe();
-			keyframesPanel.redrawKeyframes();
 		});
 		panel.add(newButton);
 	}
@@ -225,25 +246,16 @@ public class CameraControlPanel extends PluginPanel
 	private void addLoadButton(JPanel panel)
 	{
 		loadButton.setIcon(new FlatFileViewDirectoryIcon());
+		loadButton.setToolTipText("Load a saved sequence");
 		loadButton.addActionListener(e -> {
-			JFileChooser fileChooser = new JFileChooser(KeyframeCameraPlugin.SEQUENCE_DIR.toFile());
-			fileChooser.setDialogTitle("Choose a keyframe sequence to load");
-
-			int option = fileChooser.showOpenDialog(this);
-			if (option == JFileChooser.APPROVE_OPTION)
-			{
-				File selectedFile = fileChooser.getSelectedFile();
-				if (!selectedFile.exists())
-				{
-					selectedFile = new File(selectedFile.getPath() + ".txt");
-					if (!selectedFile.exists())
-					{
-						plugin.sendChatMessage("Failed to load sequence: file not found.");
-						return;
-					}
-				}
-				plugin.load(Paths.get(selectedFile.getPath()).getFileName().toString());
-			}
+			JDialog dialog = new JDialog(SwingUtilities.getWindowAncestor(this), "Load Sequence");
+			dialog.setContentPane(new SequenceBrowserPanel(plugin.getLibrary(), info -> {
+				dialog.dispose();
+				plugin.load(info);
+			}));
+			dialog.pack();
+			dialog.setLocationRelativeTo(this);
+			dialog.setVisible(true);
 		});
 
 		panel.add(loadButton);
@@ -251,22 +263,66 @@ public class CameraControlPanel extends PluginPanel
 
 	public void updatePanel()
 	{
-		this.sequence = plugin.getSequence();
-		keyframesPanel.redrawKeyframes();
+		if (sequence != plugin.getSequence())
+		{
+			sequence.removeListener(this);
+			sequence = plugin.getSequence();
+			preserveLocationCheckbox.setSelected(sequence.isPreserveLocation());
+			interpolationComboBox.setSelectedItem(sequence.getInterpolation());
+			constantSpeedCheckbox.setSelected(sequence.isConstantSpeed());
+			timelinePanel.updateSequence();
+			keyframesPanel.redrawKeyframes();
+			sequence.addListener(this);
+		}
+		keyframesPanel.setActiveKeyframe(playback.isPlaying() ? playback.getCurrentKeyframeIndex() : -1);
+		keyframesPanel.updateActions();
+		updateControls();
+	}
+
+	@Override
+	public void keyframeAdded(int index)
+	{
+		sequenceEdited();
+	}
+
+	@Override
+	public void keyframeRemoved(int index)
+	{
+		sequenceEdited();
+	}
+
+	@Override
+	public void keyframesSwapped(int indexA, int indexB)
+	{
+		sequenceEdited();
+	}
+
+	/**
+	 * Whether play, save and the keyframe actions are available depends on how
+	 * many keyframes there are and which one is selected.
+	 */
+	private void sequenceEdited()
+	{
+		if (!SwingUtilities.isEventDispatchThread())
+		{
+			SwingUtilities.invokeLater(this::sequenceEdited);
+			return;
+		}
+		keyframesPanel.updateActions();
 		updateControls();
-		revalidate();
-		repaint();
 	}
 
 	public void updateControls()
 	{
-		playButton.setEnabled((!config.playing() || config.paused()) && sequence.getKeyframes().size() >= 2 && loggedIn());
-		pauseButton.setEnabled(config.playing() && !config.paused() && loggedIn());
-		newButton.setEnabled(!config.playing());
-		stopButton.setEnabled(config.playing() && loggedIn());
-		saveButton.setEnabled(!config.playing() && !sequence.getKeyframes().isEmpty());
-		loadButton.setEnabled(!config.playing());
-		addKeyframeButton.setEnabled(!config.playing() && loggedIn());
+		playButton.setEnabled((!playback.isPlaying() || playback.isPaused()) && sequence.size() >= 2 && loggedIn());
+		pauseButton.setEnabled(playback.isPlaying() && !playback.isPaused() && loggedIn());
+		newButton.setEnabled(!playback.isPlaying());
+		stopButton.setEnabled(playback.isPlaying() && loggedIn());
+		saveButton.setEnabled(!playback.isPlaying() && !sequence.isEmpty());
+		loadButton.setEnabled(!playback.isPlaying());
+		interpolationComboBox.setEnabled(!playback.isPlaying());
+		constantSpeedCheckbox.setEnabled(!playback.isPlaying());
+		addKeyframeButton.setEnabled(!playback.isPlaying() && loggedIn());
 		cameraModeButton.setText(client.getCameraMode() == 0 && loggedIn() ? "Enable Free Cam" : "Disable Free Cam");
 	}
 
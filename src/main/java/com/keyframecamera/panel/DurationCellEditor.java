@@ -0,0 +1,70 @@
+package com.keyframecamera.panel;
+
+import java.awt.Component;
+import java.text.ParseException;
+import javax.swing.AbstractCellEditor;
+import javax.swing.JFormattedTextField;
+import javax.swing.JSpinner;
+import javax.swing.JTable;
+import javax.swing.SpinnerNumberModel;
+import javax.swing.table.TableCellEditor;
+import net.runelite.client.ui.FontManager;
+
+/**
+ * Spinner editor for keyframe durations. Like the old per-row spinners, every
+ * change is applied to the sequence immediately rather than on commit.
+ */
+class DurationCellEditor extends AbstractCellEditor implements TableCellEditor
+{
+	private final JSpinner spinner = new JSpinner(new SpinnerNumberModel(Long.valueOf(0), Long.valueOf(0), Long.valueOf(Long.MAX_VALUE), Long.valueOf(1)));
+	private JTable table;
+	private int row;
+	private boolean updating;
+
+	DurationCellEditor()
+	{
+		spinner.setFont(FontManager.getRunescapeSmallFont());
+		JFormattedTextField tf = ((JSpinner.DefaultEditor) spinner.getEditor()).getTextField();
+		tf.setColumns(8);
+
+		spinner.addChangeListener(e -> {
+			if (!updating && table != null)
+			{
+				table.getModel().setValueAt(spinner.getValue(), row, KeyframeTableModel.DURATION_COLUMN);
+			}
+		});
+	}
+
+	@Override
+	public Component getTableCellEditorComponent(JTable table, Object value, boolean isSelected, int row, int column)
+	{
+		this.table = table;
+		this.row = table.convertRowIndexToModel(row);
+
+		updating = true;
+		spinner.setValue(value);
+		updating = false;
+
+		return spinner;
+	}
+
+	@Override
+	public Object getCellEditorValue()
+	{
+		return spinner.getValue();
+	}
+
+	@Override
+	public boolean stopCellEditing()
+	{
+		try
+		{
+			spinner.commitEdit();
+		}
+		catch (ParseException ignored)
+		{
+			// Keep the last valid value
+		}
+		return super.stopCellEditing();
+	}
+}
@@ -0,0 +1,41 @@
+package com.keyframecamera.panel;
+
+import java.awt.Color;
+import java.awt.Component;
+import javax.swing.JTable;
+import javax.swing.SwingConstants;
+import javax.swing.border.EmptyBorder;
+import javax.swing.table.DefaultTableCellRenderer;
+import lombok.Setter;
+import net.runelite.client.ui.ColorScheme;
+import net.runelite.client.ui.FontManager;
+
+/**
+ * Shared renderer for every keyframe cell. Highlights the index of the
+ * keyframe currently being played.
+ */
+class KeyframeCellRenderer extends DefaultTableCellRenderer
+{
+	@Setter
+	private int activeRow = -1;
+
+	KeyframeCellRenderer()
+	{
+		setBorder(new EmptyBorder(0, 4, 0, 4));
+	}
+
+	@Override
+	public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column)
+	{
+		super.getTableCellRendererComponent(table, value, isSelected, false, row, column);
+
+		setFont(FontManager.getRunescapeSmallFont());
+		setHorizontalAlignment(column == KeyframeTableModel.INDEX_COLUMN ? SwingConstants.CENTER : SwingConstants.LEFT);
+		setBackground(isSelected ? ColorScheme.MEDIUM_GRAY_COLOR : ColorScheme.DARK_GRAY_COLOR);
+
+		boolean active = column == KeyframeTableModel.INDEX_COLUMN && table.convertRowIndexToModel(row) == activeRow;
+		setForeground(active ? ColorScheme.BRAND_ORANGE : Color.WHITE);
+
+		return this;
+	}
+}
@@ -1,29 +1,84 @@
 package com.keyframecamera.panel;
 
+import com.keyframecamera.EaseType;
+import com.keyframecamera.Keyframe;
 import com.keyframecamera.KeyframeCameraPlugin;
 import com.keyframecamera.Playback;
 import com.keyframecamera.Sequence;
 import java.awt.Color;
+import java.awt.Cursor;
+import java.awt.Dimension;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
-import java.util.HashSet;
+import java.awt.Rectangle;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.function.Consumer;
+import javax.swing.BorderFactory;
+import javax.swing.DefaultCellEditor;
+import javax.swing.ImageIcon;
+import javax.swing.JComboBox;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.ListSelectionModel;
+import javax.swing.border.EmptyBorder;
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.JTableHeader;
+import javax.swing.table.TableColumn;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.client.ui.ColorScheme;
 import net.runelite.client.ui.FontManager;
+import net.runelite.client.util.ImageUtil;
 
+/**
+ * Keyframe list backed by a {@link JTable}, so only the visible rows are ever
+ * painted and a single shared editor is used for whichever row is being edited.
+ * Actions apply to the selected keyframe.
+ */
 @Slf4j
 public class KeyframePanel extends JPanel {
 
+    private static final ImageIcon VIEW_ICON;
+    private static final ImageIcon OVERWRITE_ICON;
+    private static final ImageIcon DUPLICATE_ICON;
+    private static final ImageIcon UP_ICON;
+    private static final ImageIcon DOWN_ICON;
+    private static final ImageIcon DELETE_ICON;
+
+    private static final int ROW_HEIGHT = 24;
+    private static final int VISIBLE_ROWS = 15;
+
+    static
+    {
+        VIEW_ICON = new ImageIcon(ImageUtil.loadImageResource(KeyframeCameraPlugin.class, "view.png"));
+        OVERWRITE_ICON = new ImageIcon(ImageUtil.loadImageResource(KeyframeCameraPlugin.class, "overwrite.png"));
+        DUPLICATE_ICON = new ImageIcon(ImageUtil.loadImageResource(KeyframeCameraPlugin.class, "duplicate.png"));
+        UP_ICON = new ImageIcon(ImageUtil.loadImageResource(KeyframeCameraPlugin.class, "up.png"));
+        DOWN_ICON = new ImageIcon(ImageUtil.loadImageResource(KeyframeCameraPlugin.class, "down.png"));
+        DELETE_ICON = new ImageIcon(ImageUtil.loadImageResource(KeyframeCameraPlugin.class, "delete.png"));
+    }
+
     KeyframeCameraPlugin plugin;
     Playback playback;
-    Sequence sequence;
     GridBagConstraints c = new GridBagConstraints();
-    JPanel keyframes = new JPanel(new GridBagLayout());
 
-    HashSet<String> showingControls = new HashSet<>();
+    private final KeyframeTableModel model;
+    private final KeyframeCellRenderer renderer = new KeyframeCellRenderer();
+    private final JTable table;
+    private int activeIndex = -1;
+
+    // Handle of the selected keyframe, so the selection follows it when rows are reordered
+    private int selectedHandle = -1;
+
+    private final JLabel view;
+    private final JLabel overwrite;
+    private final JLabel duplicate;
+    private final JLabel moveUp;
+    private final JLabel moveDown;
+    private final JLabel delete;
 
     public KeyframePanel(KeyframeCameraPlugin plugin, Playback playback)
     {
@@ -31,7 +86,6 @@ public class KeyframePanel extends JPanel {
 
         this.plugin = plugin;
         this.playback = playback;
-        this.sequence = plugin.getSequence();
 
         setLayout(new GridBagLayout());
         setBackground(ColorScheme.DARK_GRAY_COLOR);
@@ -43,83 +97,227 @@ public class KeyframePanel extends JPanel {
         c.weightx = 1;
         c.insets = new Insets(0, 0, 3, 0);
 
-        JPanel headerPanel = new JPanel(new GridBagLayout());
-        headerPanel.setBackground(ColorScheme.DARK_GRAY_COLOR);
-        headerPanel.setOpaque(false);
-
-        c.weightx = 0.2;
+        model = new KeyframeTableModel(playback, plugin.getSequence());
+        table = new JTable(model);
+        table.setRowHeight(ROW_HEIGHT);
+        table.setBackground(ColorScheme.DARK_GRAY_COLOR);
+        table.setForeground(Color.WHITE);
+        table.setGridColor(ColorScheme.MEDIUM_GRAY_COLOR);
+        table.setShowVerticalLines(false);
+        table.setFillsViewportHeight(true);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.putClientProperty("terminateEditOnFocusLost", Boolean.TRUE);
+        table.setDefaultRenderer(Object.class, renderer);
+        table.setDefaultRenderer(Integer.class, renderer);
+        table.setDefaultRenderer(Long.class, renderer);
+        table.getSelectionModel().addListSelectionListener(e -> {
+            int row = table.getSelectedRow();
+            selectedHandle = row >= 0 && row < sequence().size() ? sequence().getHandle(row) : -1;
+            updateActions();
+        });
+        model.addTableModelListener(e -> {
+            // The table shifts the selection itself on inserts and deletes, but not when rows swap
+            if (e.getType() == TableModelEvent.UPDATE && selectedHandle != -1)
+            {
+                int index = sequence().positionOf(selectedHandle);
+                if (index != table.getSelectedRow())
+                {
+                    select(index);
+                }
+            }
+        });
 
-        JLabel indexHeader = new JLabel("#");
-        indexHeader.setForeground(Color.WHITE);
-        indexHeader.setFont(FontManager.getRunescapeSmallFont());
-        headerPanel.add(indexHeader, c);
+        JComboBox<EaseType> easeTypeComboBox = new JComboBox<>(EaseType.values());
+        easeTypeComboBox.setFont(FontManager.getRunescapeSmallFont());
+        table.getColumnModel().getColumn(KeyframeTableModel.DURATION_COLUMN).setCellEditor(new DurationCellEditor());
+        table.getColumnModel().getColumn(KeyframeTableModel.EASE_COLUMN).setCellEditor(new DefaultCellEditor(easeTypeComboBox));
 
-        c.gridx++;
-        c.weightx = 0.5;
+        TableColumn indexColumn = table.getColumnModel().getColumn(KeyframeTableModel.INDEX_COLUMN);
+        indexColumn.setPreferredWidth(ROW_HEIGHT);
+        indexColumn.setMaxWidth(ROW_HEIGHT + 8);
 
-        JLabel durationHeader = new JLabel("Duration (ms)");
-        durationHeader.setForeground(Color.WHITE);
-        durationHeader.setFont(FontManager.getRunescapeSmallFont());
-        headerPanel.add(durationHeader, c);
+        JTableHeader header = table.getTableHeader();
+        header.setFont(FontManager.getRunescapeSmallFont());
+        header.setBackground(ColorScheme.DARKER_GRAY_COLOR);
+        header.setForeground(Color.WHITE);
+        header.setReorderingAllowed(false);
 
-        c.gridx++;
-        c.weightx = 0.3;
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setBorder(BorderFactory.createLineBorder(ColorScheme.MEDIUM_GRAY_COLOR));
+        scrollPane.getViewport().setBackground(ColorScheme.DARK_GRAY_COLOR);
+        table.setPreferredScrollableViewportSize(new Dimension(0, ROW_HEIGHT * VISIBLE_ROWS));
 
-        JLabel easingHeader = new JLabel("Easing");
-        easingHeader.setForeground(Color.WHITE);
-        easingHeader.setFont(FontManager.getRunescapeSmallFont());
-        headerPanel.add(easingHeader, c);
+        add(scrollPane, c);
+        c.gridy++;
 
-        add(headerPanel, c);
+        view = createActionLabel(VIEW_ICON, "Move the camera to this keyframe", keyframe -> playback.setCameraToKeyframe(keyframe));
+        overwrite = createActionLabel(OVERWRITE_ICON, "Overwrite with current camera state", keyframe -> sequence().overwrite(keyframe));
+        duplicate = createActionLabel(DUPLICATE_ICON, "Duplicate keyframe", keyframe -> sequence().duplicate(keyframe));
+        moveUp = createActionLabel(UP_ICON, "Move keyframe up", keyframe ->
+            sequence().swap(sequence().get(sequence().indexOf(keyframe) - 1), keyframe));
+        moveDown = createActionLabel(DOWN_ICON, "Move keyframe down", keyframe ->
+            sequence().swap(keyframe, sequence().get(sequence().indexOf(keyframe) + 1)));
+        delete = createActionLabel(DELETE_ICON, "Delete keyframe", keyframe -> {
+            int index = sequence().indexOf(keyframe);
+            sequence().remove(keyframe);
+            select(Math.min(index, sequence().size() - 1));
+        });
 
-        c.gridy++;
-        c.weightx = 1;
-        c.insets = new Insets(0, 0, 0, 0);
+        JPanel actionPanel = new JPanel(new GridBagLayout());
+        actionPanel.setOpaque(false);
+        actionPanel.setBorder(new EmptyBorder(2, 2, 2, 2));
 
-        keyframes.setBackground(ColorScheme.DARK_GRAY_COLOR);
-        keyframes.setOpaque(false);
+        GridBagConstraints cc = new GridBagConstraints();
+        cc.fill = GridBagConstraints.HORIZONTAL;
+        cc.gridx = 0;
+        cc.gridy = 0;
+        cc.weightx = 0.16666;
 
-        for (int i = 0; i < sequence.size(); i++)
+        for (JLabel label : new JLabel[]{view, overwrite, duplicate, moveUp, moveDown, delete})
         {
-			KeyframeDisplay keyframeDisplay = new KeyframeDisplay(this, playback, sequence, i);
-            keyframes.add(keyframeDisplay, c);
-            c.gridy++;
+            actionPanel.add(label, cc);
+            cc.gridx++;
         }
 
-        add(keyframes, c);
+        add(actionPanel, c);
+        updateActions();
     }
 
-    public void toggleShowControls(String id)
+    private Sequence sequence()
     {
-        if (showingControls.contains(id))
+        return model.getSequence();
+    }
+
+    private Keyframe selectedKeyframe()
+    {
+        int row = table.getSelectedRow();
+        if (row < 0 || row >= sequence().size())
         {
-            showingControls.remove(id);
+            return null;
         }
-        else
+        return sequence().get(table.convertRowIndexToModel(row));
+    }
+
+    private void select(int index)
+    {
+        if (index < 0 || index >= sequence().size())
         {
-            showingControls.add(id);
+            table.clearSelection();
+            return;
         }
+        table.setRowSelectionInterval(index, index);
+        table.scrollRectToVisible(table.getCellRect(index, 0, true));
     }
 
-    public void addKeyframe(int index)
+    private JLabel createActionLabel(ImageIcon icon, String tooltip, Consumer<Keyframe> action)
     {
-        c.gridy = index + 2;
-		KeyframeDisplay keyframeDisplay = new KeyframeDisplay(this, playback, sequence, index);
-        keyframes.add(keyframeDisplay, c);
+        JLabel label = new JLabel(icon);
+        label.setPreferredSize(new Dimension(24, 24));
+        label.setToolTipText(tooltip);
+        label.addMouseListener(new MouseAdapter()
+        {
+            @Override
+            public void mousePressed(MouseEvent e)
+            {
+                Keyframe keyframe = selectedKeyframe();
+                if (!label.isEnabled() || keyframe == null || playback.isPlaying())
+                {
+                    return;
+                }
+                if (table.isEditing())
+                {
+                    table.getCellEditor().stopCellEditing();
+                }
+                action.accept(keyframe);
+                updateActions();
+            }
+
+            @Override
+            public void mouseEntered(MouseEvent e)
+            {
+                if (label.isEnabled() && !playback.isPlaying())
+                {
+                    label.setCursor(new Cursor(Cursor.HAND_CURSOR));
+                }
+            }
+
+            @Override
+            public void mouseExited(MouseEvent e)
+            {
+                label.setCursor(new Cursor(Cursor.DEFAULT_CURSOR));
+            }
+        });
+        return label;
     }
 
+    public void updateActions()
+    {
+        int row = table.getSelectedRow();
+        boolean selected = row >= 0 && !playback.isPlaying();
+
+        view.setEnabled(selected);
+        overwrite.setEnabled(selected);
+        duplicate.setEnabled(selected);
+        moveUp.setEnabled(selected && row > 0);
+        moveDown.setEnabled(selected && row < sequence().size() - 1);
+        delete.setEnabled(selected);
+    }
+
+    /**
+     * Points the table at the plugin's current sequence. Edits to a sequence are
+     * picked up by the model as they happen, so this is only needed when the whole
+     * sequence is replaced.
+     */
     public void redrawKeyframes()
     {
-        this.sequence = plugin.getSequence();
-        keyframes.removeAll();
-        c.gridy = 1;
+        KeyframeRedrawEvent event = new KeyframeRedrawEvent();
+        event.begin();
+
+        if (table.isEditing())
+        {
+            table.getCellEditor().cancelCellEditing();
+        }
+        model.setSequence(plugin.getSequence());
+        activeIndex = -1;
+        renderer.setActiveRow(-1);
+        updateActions();
+
+        event.end();
+        if (event.shouldCommit())
+        {
+            event.rows = model.getRowCount();
+            event.commit();
+        }
+    }
+
+    public void setActiveKeyframe(int index)
+    {
+        if (index == activeIndex)
+        {
+            return;
+        }
+
+        repaintRow(activeIndex);
+        activeIndex = index;
+        renderer.setActiveRow(index);
+        repaintRow(index);
 
-        for (int i = 0; i < sequence.size(); i++)
+        if (index >= 0 && index < table.getRowCount())
+        {
+            Rectangle cell = table.getCellRect(index, 0, true);
+            if (!table.getVisibleRect().contains(cell))
+            {
+                table.scrollRectToVisible(cell);
+            }
+        }
+    }
+
+    private void repaintRow(int index)
+    {
+        if (index >= 0 && index < table.getRowCount())
         {
-            addKeyframe(i);
+            table.repaint(table.getCellRect(index, KeyframeTableModel.INDEX_COLUMN, true));
         }
-        revalidate();
-        repaint();
     }
 
 }
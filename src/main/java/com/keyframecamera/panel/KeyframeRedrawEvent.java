@@ -0,0 +1,18 @@
+package com.keyframecamera.panel;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The keyframe table being rebuilt for a new sequence.
+ */
+@Name("com.keyframecamera.KeyframeRedraw")
+@Label("Keyframe Table Redraw")
+@Category({"Keyframe Camera", "Panel"})
+class KeyframeRedrawEvent extends Event
+{
+	@Label("Rows")
+	int rows;
+}
@@ -0,0 +1,191 @@
+package com.keyframecamera.panel;
+
+import com.keyframecamera.BezierEase;
+import com.keyframecamera.EaseType;
+import com.keyframecamera.Keyframe;
+import com.keyframecamera.Playback;
+import com.keyframecamera.Sequence;
+import com.keyframecamera.SequenceListener;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+import lombok.Getter;
+
+/**
+ * Table model reading straight from a {@link Sequence}. Edits to the sequence
+ * are forwarded as row-level table events, so the table only repaints the rows
+ * that changed.
+ */
+class KeyframeTableModel extends AbstractTableModel implements SequenceListener
+{
+	static final int INDEX_COLUMN = 0;
+	static final int DURATION_COLUMN = 1;
+	static final int EASE_COLUMN = 2;
+	static final int CURVE_COLUMN = 3;
+
+	private static final String[] COLUMN_NAMES = {"#", "Duration (ms)", "Easing", "Curve"};
+
+	private final Playback playback;
+
+	@Getter
+	private Sequence sequence;
+
+	KeyframeTableModel(Playback playback, Sequence sequence)
+	{
+		this.playback = playback;
+		this.sequence = sequence;
+		sequence.addListener(this);
+	}
+
+	void setSequence(Sequence sequence)
+	{
+		if (this.sequence == sequence)
+		{
+			return;
+		}
+		this.sequence.removeListener(this);
+		this.sequence = sequence;
+		sequence.addListener(this);
+		fireTableDataChanged();
+	}
+
+	@Override
+	public int getRowCount()
+	{
+		return sequence.size();
+	}
+
+	@Override
+	public int getColumnCount()
+	{
+		return COLUMN_NAMES.length;
+	}
+
+	@Override
+	public String getColumnName(int column)
+	{
+		return COLUMN_NAMES[column];
+	}
+
+	@Override
+	public Class<?> getColumnClass(int column)
+	{
+		switch (column)
+		{
+			case INDEX_COLUMN:
+				return Integer.class;
+			case DURATION_COLUMN:
+				return Long.class;
+			case EASE_COLUMN:
+				return EaseType.class;
+			default:
+				return String.class;
+		}
+	}
+
+	@Override
+	public Object getValueAt(int row, int column)
+	{
+		switch (column)
+		{
+			case INDEX_COLUMN:
+				return row + 1;
+			case DURATION_COLUMN:
+				return sequence.getKeyframeDuration(row);
+			case EASE_COLUMN:
+				return sequence.getEase(row);
+			default:
+				return sequence.getEase(row) == EaseType.BEZIER ? sequence.getBezier(row).toString() : "";
+		}
+	}
+
+	@Override
+	public boolean isCellEditable(int row, int column)
+	{
+		if (column == CURVE_COLUMN && sequence.getEase(row) != EaseType.BEZIER)
+		{
+			return false;
+		}
+		return column != INDEX_COLUMN && !playback.isPlaying();
+	}
+
+	@Override
+	public void setValueAt(Object value, int row, int column)
+	{
+		if (row >= sequence.size())
+		{
+			return;
+		}
+
+		Keyframe keyframe = sequence.get(row);
+		if (column == DURATION_COLUMN)
+		{
+			long duration = Math.max(0, ((Number) value).longValue());
+			if (duration != sequence.getKeyframeDuration(keyframe))
+			{
+				sequence.setKeyframeDuration(keyframe, duration);
+			}
+		}
+		else if (column == EASE_COLUMN && value != keyframe.getEase())
+		{
+			sequence.setEase(keyframe, (EaseType) value);
+		}
+		else if (column == CURVE_COLUMN)
+		{
+			// Text that isn't "x1, y1, x2, y2" with x in [0, 1] leaves the curve as it was
+			BezierEase curve = BezierEase.parse((String) value);
+			if (curve != null && !curve.equals(sequence.getBezier(row)))
+			{
+				sequence.setBezier(keyframe, curve);
+			}
+		}
+	}
+
+	@Override
+	public void keyframeAdded(int index)
+	{
+		onEdt(() -> {
+			fireTableRowsInserted(index, index);
+			// The previous keyframe was the last one and now has a duration
+			if (index > 0)
+			{
+				fireTableRowsUpdated(index - 1, index - 1);
+			}
+		});
+	}
+
+	@Override
+	public void keyframeRemoved(int index)
+	{
+		onEdt(() -> {
+			fireTableRowsDeleted(index, index);
+			if (index > 0)
+			{
+				fireTableRowsUpdated(index - 1, index - 1);
+			}
+		});
+	}
+
+	@Override
+	public void keyframesSwapped(int indexA, int indexB)
+	{
+		onEdt(() -> fireTableRowsUpdated(Math.min(indexA, indexB), Math.max(indexA, indexB)));
+	}
+
+	@Override
+	public void keyframeChanged(int index)
+	{
+		onEdt(() -> fireTableRowsUpdated(index, index));
+	}
+
+	private static void onEdt(Runnable runnable)
+	{
+		if (SwingUtilities.isEventDispatchThread())
+		{
+			runnable.run();
+		}
+		else
+		{
+			SwingUtilities.invokeLater(runnable);
+		}
+	}
+}
@@ -0,0 +1,204 @@
+package com.keyframecamera.panel;
+
+import com.keyframecamera.SequenceInfo;
+import com.keyframecamera.SequenceLibrary;
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.GridLayout;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Locale;
+import java.util.function.Consumer;
+import javax.swing.BorderFactory;
+import javax.swing.DefaultListModel;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.ListCellRenderer;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingUtilities;
+import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import net.runelite.client.ui.ColorScheme;
+import net.runelite.client.ui.FontManager;
+
+/**
+ * Searchable list of the sequences in a {@link SequenceLibrary}. Everything
+ * shown comes from the library's cached summaries, so opening and filtering
+ * never touches the files.
+ */
+class SequenceBrowserPanel extends JPanel
+{
+	private final SequenceLibrary library;
+	private final Consumer<SequenceInfo> onLoad;
+	private final Runnable libraryListener = () -> SwingUtilities.invokeLater(this::refresh);
+
+	private final JTextField search = new JTextField();
+	private final DefaultListModel<SequenceInfo> model = new DefaultListModel<>();
+	private final JList<SequenceInfo> list = new JList<>(model);
+	private final JButton loadButton = new JButton("Load");
+
+	SequenceBrowserPanel(SequenceLibrary library, Consumer<SequenceInfo> onLoad)
+	{
+		this.library = library;
+		this.onLoad = onLoad;
+
+		setLayout(new BorderLayout(0, 6));
+		setBorder(new EmptyBorder(8, 8, 8, 8));
+		setBackground(ColorScheme.DARK_GRAY_COLOR);
+
+		search.setToolTipText("Filter by name");
+		search.getDocument().addDocumentListener(new DocumentListener()
+		{
+			@Override
+			public void insertUpdate(DocumentEvent e)
+			{
+				refresh();
+			}
+
+			@Override
+			public void removeUpdate(DocumentEvent e)
+			{
+				refresh();
+			}
+
+			@Override
+			public void changedUpdate(DocumentEvent e)
+			{
+				refresh();
+			}
+		});
+		add(search, BorderLayout.NORTH);
+
+		list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+		list.setBackground(ColorScheme.DARKER_GRAY_COLOR);
+		list.setCellRenderer(new SequenceInfoRenderer());
+		list.addListSelectionListener(e -> loadButton.setEnabled(list.getSelectedValue() != null));
+		list.addMouseListener(new MouseAdapter()
+		{
+			@Override
+			public void mouseClicked(MouseEvent e)
+			{
+				if (e.getClickCount() == 2)
+				{
+					loadSelected();
+				}
+			}
+		});
+		list.addKeyListener(new KeyAdapter()
+		{
+			@Override
+			public void keyPressed(KeyEvent e)
+			{
+				if (e.getKeyCode() == KeyEvent.VK_ENTER)
+				{
+					loadSelected();
+				}
+			}
+		});
+
+		JScrollPane scrollPane = new JScrollPane(list);
+		scrollPane.setBorder(BorderFactory.createLineBorder(ColorScheme.MEDIUM_GRAY_COLOR));
+		scrollPane.setPreferredSize(new Dimension(260, 360));
+		add(scrollPane, BorderLayout.CENTER);
+
+		loadButton.setEnabled(false);
+		loadButton.addActionListener(e -> loadSelected());
+		add(loadButton, BorderLayout.SOUTH);
+
+		refresh();
+	}
+
+	@Override
+	public void addNotify()
+	{
+		super.addNotify();
+		library.addListener(libraryListener);
+		refresh();
+	}
+
+	@Override
+	public void removeNotify()
+	{
+		library.removeListener(libraryListener);
+		super.removeNotify();
+	}
+
+	private void refresh()
+	{
+		SequenceInfo selected = list.getSelectedValue();
+		String query = search.getText().trim().toLowerCase(Locale.ROOT);
+
+		model.clear();
+		for (SequenceInfo info : library.getEntries())
+		{
+			if (query.isEmpty() || displayName(info).toLowerCase(Locale.ROOT).contains(query))
+			{
+				model.addElement(info);
+			}
+		}
+
+		if (selected != null)
+		{
+			for (int i = 0; i < model.size(); i++)
+			{
+				if (displayName(model.get(i)).equals(displayName(selected)))
+				{
+					list.setSelectedIndex(i);
+					break;
+				}
+			}
+		}
+	}
+
+	private void loadSelected()
+	{
+		SequenceInfo selected = list.getSelectedValue();
+		if (selected != null)
+		{
+			onLoad.accept(selected);
+		}
+	}
+
+	private static String displayName(SequenceInfo info)
+	{
+		return info.getArchive() == null ? info.getName() : info.getArchive() + "/" + info.getName();
+	}
+
+	private static class SequenceInfoRenderer extends JPanel implements ListCellRenderer<SequenceInfo>
+	{
+		private final JLabel name = new JLabel();
+		private final JLabel details = new JLabel();
+
+		SequenceInfoRenderer()
+		{
+			super(new GridLayout(2, 1));
+			setBorder(new EmptyBorder(3, 6, 3, 6));
+			name.setFont(FontManager.getRunescapeFont());
+			details.setFont(FontManager.getRunescapeSmallFont());
+			details.setForeground(ColorScheme.LIGHT_GRAY_COLOR);
+			add(name);
+			add(details);
+		}
+
+		@Override
+		public Component getListCellRendererComponent(JList<? extends SequenceInfo> list, SequenceInfo info, int index, boolean selected, boolean focused)
+		{
+			name.setText(displayName(info));
+			name.setForeground(selected ? ColorScheme.BRAND_ORANGE : ColorScheme.TEXT_COLOR);
+			details.setText(String.format("%d keyframes, %.1fs%s",
+				info.getKeyframeCount(),
+				info.getDuration() / 1000.0,
+				info.isPreserveLocation() ? ", preserves location" : ""));
+			setBackground(selected ? ColorScheme.MEDIUM_GRAY_COLOR : ColorScheme.DARKER_GRAY_COLOR);
+			return this;
+		}
+	}
+}
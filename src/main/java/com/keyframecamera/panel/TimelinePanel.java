@@ -0,0 +1,293 @@
+package com.keyframecamera.panel;
+
+import com.keyframecamera.KeyframeCameraPlugin;
+import com.keyframecamera.Playback;
+import com.keyframecamera.PlaybackState;
+import com.keyframecamera.Sequence;
+import com.keyframecamera.SequenceListener;
+import java.awt.Color;
+import java.awt.Cursor;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import net.runelite.client.ui.ColorScheme;
+
+/**
+ * Custom-painted timeline of the whole sequence. Painting walks pixel columns
+ * rather than keyframes, finding each column's keyframes by binary search, so
+ * the cost depends on the width and not on the sequence length.
+ * Dragging a marker retimes it; dragging anywhere else scrubs playback.
+ */
+public class TimelinePanel extends JComponent implements SequenceListener
+{
+	private static final int HEIGHT = 32;
+	private static final int MARKER_GRAB_DISTANCE = 3;
+	private static final int PLAYHEAD_REFRESH_MS = 16;
+
+	private static final Color MARKER_COLOR = ColorScheme.LIGHT_GRAY_COLOR;
+	private static final Color PLAYHEAD_COLOR = ColorScheme.BRAND_ORANGE;
+
+	private final KeyframeCameraPlugin plugin;
+	private final Playback playback;
+	private final Timer playheadTimer;
+	private Sequence sequence;
+
+	private int playheadX = -1;
+	private long scrubPosition;
+
+	// Keyframe being retimed, and the duration the view was scaled to when the drag began
+	private int dragIndex = -1;
+	private long dragDuration;
+
+	public TimelinePanel(KeyframeCameraPlugin plugin, Playback playback)
+	{
+		this.plugin = plugin;
+		this.playback = playback;
+		this.sequence = plugin.getSequence();
+		sequence.addListener(this);
+
+		setOpaque(true);
+		setBackground(ColorScheme.DARKER_GRAY_COLOR);
+		setPreferredSize(new Dimension(0, HEIGHT));
+		setToolTipText("Drag to scrub, drag a keyframe to retime it");
+
+		playheadTimer = new Timer(PLAYHEAD_REFRESH_MS, e -> updatePlayhead());
+		playback.addListener((previous, state) -> SwingUtilities.invokeLater(() -> {
+			if (state == PlaybackState.STOPPED)
+			{
+				playheadTimer.stop();
+			}
+			else
+			{
+				playheadTimer.start();
+			}
+			updatePlayhead();
+		}));
+
+		MouseAdapter mouseAdapter = new MouseAdapter()
+		{
+			@Override
+			public void mousePressed(MouseEvent e)
+			{
+				dragDuration = sequence.getSequenceDuration();
+				dragIndex = playback.isPlaying() ? -1 : markerAt(e.getX());
+				if (dragIndex == -1)
+				{
+					scrub(e.getX());
+				}
+			}
+
+			@Override
+			public void mouseDragged(MouseEvent e)
+			{
+				if (dragIndex == -1)
+				{
+					scrub(e.getX());
+				}
+				else
+				{
+					retime(e.getX());
+				}
+			}
+
+			@Override
+			public void mouseReleased(MouseEvent e)
+			{
+				dragIndex = -1;
+			}
+
+			@Override
+			public void mouseMoved(MouseEvent e)
+			{
+				boolean overMarker = !playback.isPlaying() && markerAt(e.getX()) != -1;
+				setCursor(Cursor.getPredefinedCursor(overMarker ? Cursor.E_RESIZE_CURSOR : Cursor.DEFAULT_CURSOR));
+			}
+		};
+		addMouseListener(mouseAdapter);
+		addMouseMotionListener(mouseAdapter);
+	}
+
+	/**
+	 * Follows the plugin's current sequence after it has been replaced.
+	 */
+	public void updateSequence()
+	{
+		if (sequence == plugin.getSequence())
+		{
+			return;
+		}
+		sequence.removeListener(this);
+		sequence = plugin.getSequence();
+		sequence.addListener(this);
+		scrubPosition = 0;
+		playheadX = -1;
+		repaint();
+	}
+
+	@Override
+	protected void paintComponent(Graphics g)
+	{
+		Rectangle clip = g.getClipBounds();
+		if (clip == null)
+		{
+			clip = new Rectangle(0, 0, getWidth(), getHeight());
+		}
+
+		g.setColor(getBackground());
+		g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+		int width = getWidth();
+		int height = getHeight();
+		long duration = sequence.getSequenceDuration();
+
+		if (sequence.size() > 0 && width > 0)
+		{
+			g.setColor(MARKER_COLOR);
+			int end = Math.min(width, clip.x + clip.width);
+			for (int x = Math.max(0, clip.x); x < end; x++)
+			{
+				if (hasKeyframeInColumn(x, width, duration))
+				{
+					g.drawLine(x, height / 4, x, height - height / 4);
+				}
+			}
+		}
+
+		if (playheadX >= 0)
+		{
+			g.setColor(PLAYHEAD_COLOR);
+			g.drawLine(playheadX, 0, playheadX, height);
+		}
+	}
+
+	private boolean hasKeyframeInColumn(int x, int width, long duration)
+	{
+		if (duration == 0)
+		{
+			return x == 0;
+		}
+
+		double start = (double) x * duration / width;
+		double end = (double) (x + 1) * duration / width;
+
+		// The last column also owns the final keyframe, which sits exactly at the end
+		int index = sequence.playbackSegmentAt(x == width - 1 ? end : Math.nextDown(end));
+		return sequence.getPlaybackTimestamp(index) >= start;
+	}
+
+	private long positionAt(int x, long duration)
+	{
+		int width = Math.max(1, getWidth());
+		return Math.round((double) Math.max(0, Math.min(x, width)) * duration / width);
+	}
+
+	private int xAt(double position, long duration)
+	{
+		if (duration == 0)
+		{
+			return 0;
+		}
+		return (int) Math.min(getWidth() - 1, position * getWidth() / duration);
+	}
+
+	private int markerAt(int x)
+	{
+		long duration = sequence.getSequenceDuration();
+		if (sequence.size() < 2 || duration == 0)
+		{
+			return -1;
+		}
+
+		int index = sequence.playbackSegmentAt(positionAt(x, duration));
+		int best = -1;
+		int bestDistance = MARKER_GRAB_DISTANCE + 1;
+		for (int i = index; i <= Math.min(index + 1, sequence.size() - 1); i++)
+		{
+			int distance = Math.abs(xAt(sequence.getPlaybackTimestamp(i), duration) - x);
+			if (distance < bestDistance)
+			{
+				best = i;
+				bestDistance = distance;
+			}
+		}
+
+		// The first keyframe is always at zero and can't be moved
+		return best > 0 ? best : -1;
+	}
+
+	private void scrub(int x)
+	{
+		long duration = sequence.getSequenceDuration();
+		if (sequence.size() < 2 || duration == 0)
+		{
+			return;
+		}
+
+		scrubPosition = positionAt(x, dragDuration);
+		if (playback.isPlaying() || plugin.freeCamEnabled())
+		{
+			playback.seek(scrubPosition);
+		}
+		updatePlayhead();
+	}
+
+	private void retime(int x)
+	{
+		// Markers are drawn on the playback timeline, which constant speed retimes
+		long duration = sequence.durationToReach(dragIndex, positionAt(x, dragDuration));
+		sequence.setKeyframeDuration(sequence.get(dragIndex - 1), duration);
+	}
+
+	private void updatePlayhead()
+	{
+		long duration = sequence.getSequenceDuration();
+		double position = playback.isPlaying() ? playback.elapsedNanos() / 1_000_000.0 : scrubPosition;
+		int x = sequence.size() < 2 ? -1 : xAt(position, duration);
+
+		if (x == playheadX)
+		{
+			return;
+		}
+
+		// Only the columns under the old and new playhead need repainting
+		int height = getHeight();
+		if (playheadX >= 0)
+		{
+			repaint(playheadX, 0, 1, height);
+		}
+		if (x >= 0)
+		{
+			repaint(x, 0, 1, height);
+		}
+		playheadX = x;
+	}
+
+	@Override
+	public void keyframeAdded(int index)
+	{
+		repaint();
+	}
+
+	@Override
+	public void keyframeRemoved(int index)
+	{
+		repaint();
+	}
+
+	@Override
+	public void keyframesSwapped(int indexA, int indexB)
+	{
+		repaint();
+	}
+
+	@Override
+	public void keyframeChanged(int index)
+	{
+		repaint();
+	}
+}
@@ -0,0 +1,63 @@
+package com.keyframecamera;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+public class ArcLengthTableTest
+{
+	@Test
+	public void testEditsMatchFullRebuild()
+	{
+		for (InterpolationMode mode : InterpolationMode.values())
+		{
+			Sequence sequence = TestSequences.create(40, mode.ordinal());
+			sequence.setInterpolation(mode);
+			sequence.setConstantSpeed(true);
+			TestSequences.editAndCheck(sequence, mode.ordinal(), 300, (edited, message) -> assertMatchesRebuild(edited, mode + " " + message));
+		}
+	}
+
+	@Test
+	public void testRunsKeepTheirDuration()
+	{
+		Sequence sequence = TestSequences.create(30, 9);
+		sequence.setInterpolation(InterpolationMode.CATMULL_ROM);
+		sequence.setConstantSpeed(true);
+		assertEquals(sequence.getSequenceDuration(), sequence.getPlaybackTimestamp(sequence.size() - 1), 1e-6);
+
+		for (int i = 1; i < sequence.size(); i++)
+		{
+			// Cuts stay cuts on the retimed timeline
+			if (sequence.getKeyframeDuration(i - 1) == 0)
+			{
+				assertEquals("keyframe " + i, sequence.getPlaybackTimestamp(i - 1), sequence.getPlaybackTimestamp(i), 0);
+			}
+		}
+	}
+
+	/**
+	 * Compares the retimed timeline against a copy of the sequence, whose
+	 * tables are built from scratch; they should agree exactly.
+	 */
+	private static void assertMatchesRebuild(Sequence sequence, String message)
+	{
+		Sequence rebuilt = sequence.copy();
+		for (int i = 0; i < sequence.size(); i++)
+		{
+			assertEquals(message + ", keyframe " + i, rebuilt.getPlaybackTimestamp(i), sequence.getPlaybackTimestamp(i), 0);
+		}
+
+		CameraSample cached = new CameraSample();
+		CameraSample expected = new CameraSample();
+		double end = sequence.getPlaybackTimestamp(sequence.size() - 1);
+		for (int k = 0; k <= 50; k++)
+		{
+			double time = end * k / 50;
+			String where = message + " at " + time;
+			assertEquals(where, rebuilt.sample(time, expected), sequence.sample(time, cached));
+			assertEquals(where, expected.getFocalX(), cached.getFocalX(), 0);
+			assertEquals(where, expected.getFocalZ(), cached.getFocalZ(), 0);
+			assertEquals(where, expected.getYaw(), cached.getYaw(), 0);
+		}
+	}
+}
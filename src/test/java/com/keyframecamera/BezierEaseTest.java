@@ -0,0 +1,130 @@
+package com.keyframecamera;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BezierEaseTest
+{
+	// Of the table the curve is read through; steep curves are read less closely
+	private static final double TOLERANCE = 1e-5;
+	private static final double STEEP_TOLERANCE = 1e-4;
+
+	@Test
+	public void testStraightLines()
+	{
+		// Control points on the diagonal make y equal x, however they're spaced
+		for (BezierEase curve : new BezierEase[]{BezierEase.of(0, 0, 1, 1), BezierEase.of(1.0 / 3, 1.0 / 3, 2.0 / 3, 2.0 / 3), BezierEase.of(0.9, 0.9, 0.1, 0.1)})
+		{
+			for (int i = 0; i <= 100; i++)
+			{
+				double t = i / 100.0;
+				assertEquals(curve + " at " + t, t, curve.ease(t), TOLERANCE);
+			}
+		}
+	}
+
+	@Test
+	public void testSymmetricCurve()
+	{
+		// CSS ease-in-out
+		BezierEase curve = BezierEase.of(0.42, 0, 0.58, 1);
+		assertEquals(0.5, curve.ease(0.5), TOLERANCE);
+		for (int i = 0; i <= 100; i++)
+		{
+			double t = i / 100.0;
+			assertEquals("at " + t, 1, curve.ease(t) + curve.ease(1 - t), TOLERANCE);
+		}
+	}
+
+	@Test
+	public void testInvertsX()
+	{
+		BezierEase[] curves = {
+			BezierEase.DEFAULT,
+			BezierEase.of(0.42, 0, 1, 1),
+			BezierEase.of(0, 0, 0.58, 1),
+			// Flat in x at both ends, where Newton-Raphson stalls
+			BezierEase.of(0, 0.5, 1, 0.5),
+			BezierEase.of(1, 0, 0, 1),
+		};
+		for (BezierEase curve : curves)
+		{
+			// Points on the curve by its parameter; solving for their x gives back their y
+			for (int i = 0; i <= 200; i++)
+			{
+				double s = i / 200.0;
+				double x = bezier(curve.getX1(), curve.getX2(), s);
+				double y = bezier(curve.getY1(), curve.getY2(), s);
+				assertEquals(curve + " at s = " + s, y, curve.solve(x), 1e-8);
+			}
+		}
+	}
+
+	@Test
+	public void testOvershoot()
+	{
+		BezierEase curve = BezierEase.of(0.1, 0.9, 0.3, 1.2);
+		double max = 0;
+		for (int i = 0; i <= 200; i++)
+		{
+			double s = i / 200.0;
+			double x = bezier(curve.getX1(), curve.getX2(), s);
+			double y = bezier(curve.getY1(), curve.getY2(), s);
+			assertEquals("at s = " + s, y, curve.solve(x), 1e-8);
+			assertEquals("at s = " + s, y, curve.ease(x), STEEP_TOLERANCE);
+			max = Math.max(max, curve.ease(x));
+		}
+		assertTrue("peak " + max, max > 1.05);
+		assertEquals(0, curve.ease(0), 0);
+		assertEquals(1, curve.ease(1), 0);
+
+		// And below zero
+		curve = BezierEase.of(0.6, -0.3, 0.7, 0.5);
+		assertTrue(curve.ease(0.2) < 0);
+		assertEquals(1, curve.ease(1), 0);
+	}
+
+	@Test
+	public void testOfRejectsInvalidCurves()
+	{
+		double[][] invalid = {
+			{-0.1, 0, 0.5, 1},
+			{0.5, 0, 1.1, 1},
+			{Double.NaN, 0, 0.5, 1},
+			{0.5, Double.POSITIVE_INFINITY, 0.5, 1},
+			{0.5, 0, 0.5, Double.NaN},
+		};
+		for (double[] points : invalid)
+		{
+			try
+			{
+				BezierEase.of(points[0], points[1], points[2], points[3]);
+				fail("accepted " + points[0] + ", " + points[1] + ", " + points[2] + ", " + points[3]);
+			}
+			catch (IllegalArgumentException e)
+			{
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void testParse()
+	{
+		assertSame(BezierEase.of(0.1, 0.9, 0.3, 1.2), BezierEase.parse(" 0.1, 0.9,0.3 ,1.2"));
+		assertEquals(BezierEase.DEFAULT, BezierEase.parse(BezierEase.DEFAULT.toString()));
+		assertNull(BezierEase.parse("0.1, 0.9, 0.3"));
+		assertNull(BezierEase.parse("0.1, 0.9, 0.3, x"));
+		assertNull(BezierEase.parse("2, 0, 0.5, 1"));
+	}
+
+	private static double bezier(double p1, double p2, double s)
+	{
+		double u = 1 - s;
+		return 3 * u * u * s * p1 + 3 * u * s * s * p2 + s * s * s;
+	}
+}
@@ -0,0 +1,57 @@
+package com.keyframecamera;
+
+import java.util.function.BiConsumer;
+import lombok.Getter;
+import net.runelite.api.ScriptID;
+
+/**
+ * Keeps the camera state a {@link HeadlessClient} has been told to show, by
+ * watching the same setters the plugin uses on a real client.
+ */
+@Getter
+class CameraRecorder implements BiConsumer<String, Object[]>
+{
+	private double focalX;
+	private double focalY;
+	private double focalZ;
+	private int pitch;
+	private int yaw;
+	private int zoom;
+	// Setter calls, counting each channel separately
+	private long writes;
+
+	@Override
+	public void accept(String method, Object[] args)
+	{
+		switch (method)
+		{
+			case "setCameraFocalPointX":
+				focalX = (double) args[0];
+				break;
+			case "setCameraFocalPointY":
+				focalY = (double) args[0];
+				break;
+			case "setCameraFocalPointZ":
+				focalZ = (double) args[0];
+				break;
+			case "setCameraPitchTarget":
+				pitch = (int) args[0];
+				break;
+			case "setCameraYawTarget":
+				yaw = (int) args[0];
+				break;
+			case "runScript":
+				// Varargs arrive as one array: script id, then its arguments
+				Object[] script = (Object[]) args[0];
+				if ((int) script[0] != ScriptID.CAMERA_DO_ZOOM)
+				{
+					return;
+				}
+				zoom = (int) script[1];
+				break;
+			default:
+				return;
+		}
+		writes++;
+	}
+}
@@ -0,0 +1,176 @@
+package com.keyframecamera;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+public class DurationIndexTest
+{
+	@Test
+	public void testAppend()
+	{
+		DurationIndex index = new DurationIndex(0);
+		List<Long> expected = new ArrayList<>();
+		Random random = new Random(1);
+		for (int i = 0; i < 100; i++)
+		{
+			long duration = random.nextInt(1000);
+			index.append(duration);
+			expected.add(duration);
+			assertSame(expected, index);
+		}
+	}
+
+	@Test
+	public void testSet()
+	{
+		DurationIndex index = new DurationIndex(4);
+		List<Long> expected = new ArrayList<>();
+		Random random = new Random(2);
+		for (int i = 0; i < 50; i++)
+		{
+			index.append(0);
+			expected.add(0L);
+		}
+
+		for (int i = 0; i < 1000; i++)
+		{
+			int at = random.nextInt(expected.size());
+			long duration = random.nextInt(1000);
+			index.set(at, duration);
+			expected.set(at, duration);
+			assertSame(expected, index);
+		}
+	}
+
+	@Test
+	public void testRemove()
+	{
+		DurationIndex index = new DurationIndex(4);
+		List<Long> expected = new ArrayList<>();
+		Random random = new Random(3);
+		for (int i = 0; i < 5000; i++)
+		{
+			if (expected.isEmpty() || random.nextInt(3) > 0)
+			{
+				long duration = random.nextInt(1000);
+				index.append(duration);
+				expected.add(duration);
+			}
+			else
+			{
+				int at = random.nextInt(expected.size());
+				index.remove(at);
+				expected.remove(at);
+			}
+			assertSame(expected, index);
+		}
+	}
+
+	@Test
+	public void testSwap()
+	{
+		DurationIndex index = new DurationIndex(4);
+		List<Long> expected = new ArrayList<>();
+		for (long duration : new long[]{100, 200, 0, 400, 500})
+		{
+			index.append(duration);
+			expected.add(duration);
+		}
+
+		index.swap(0, 3);
+		expected.set(0, 400L);
+		expected.set(3, 100L);
+		assertSame(expected, index);
+	}
+
+	@Test
+	public void testCopyIsIndependent()
+	{
+		DurationIndex index = new DurationIndex(4);
+		index.append(100);
+		index.append(200);
+
+		DurationIndex copy = new DurationIndex(index);
+		copy.append(300);
+		copy.set(0, 50);
+
+		assertEquals(2, index.size());
+		assertEquals(300, index.total());
+		assertEquals(100, index.timestampOf(1));
+		assertEquals(550, copy.total());
+	}
+
+	@Test
+	public void testSearch()
+	{
+		DurationIndex index = new DurationIndex(4);
+		// A cut at 100: keyframes 1 and 2 share a timestamp
+		for (long duration : new long[]{100, 0, 200, 0})
+		{
+			index.append(duration);
+		}
+
+		assertEquals(0, index.search(-5));
+		assertEquals(0, index.search(0));
+		assertEquals(0, index.search(99.9));
+		assertEquals(2, index.search(100));
+		assertEquals(2, index.search(299.9));
+		assertEquals(3, index.search(300));
+		assertEquals(3, index.search(1e9));
+	}
+
+	@Test
+	public void testSearchMatchesTimestamps()
+	{
+		DurationIndex index = new DurationIndex(4);
+		List<Long> expected = new ArrayList<>();
+		Random random = new Random(4);
+		for (int i = 0; i < 200; i++)
+		{
+			long duration = random.nextInt(4) == 0 ? 0 : random.nextInt(1000);
+			index.append(duration);
+			expected.add(duration);
+		}
+
+		for (int i = 0; i < 2000; i++)
+		{
+			double time = random.nextDouble() * (index.total() + 200) - 100;
+			assertEquals("time " + time, search(expected, time), index.search(time));
+		}
+	}
+
+	private static void assertSame(List<Long> expected, DurationIndex index)
+	{
+		assertEquals("size", expected.size(), index.size());
+		long timestamp = 0;
+		for (int i = 0; i < expected.size(); i++)
+		{
+			assertEquals("duration " + i, (long) expected.get(i), index.get(i));
+			assertEquals("timestamp " + i, timestamp, index.timestampOf(i));
+			timestamp += expected.get(i);
+		}
+		assertEquals("total", timestamp, index.total());
+	}
+
+	/**
+	 * The last index whose timestamp is at or before the time, found by walking
+	 * the durations.
+	 */
+	private static int search(List<Long> durations, double time)
+	{
+		int found = 0;
+		long timestamp = 0;
+		for (int i = 0; i < durations.size(); i++)
+		{
+			if (timestamp <= time)
+			{
+				found = i;
+			}
+			timestamp += durations.get(i);
+		}
+		return found;
+	}
+}
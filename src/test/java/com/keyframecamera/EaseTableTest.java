@@ -0,0 +1,58 @@
+package com.keyframecamera;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EaseTableTest
+{
+	// About a hundredth of a JAU on a half turn
+	private static final double MAX_ERROR = 1.2e-5;
+	private static final int POINTS = 1_000_000;
+
+	@Test
+	public void testTablesMatchCurves()
+	{
+		for (EaseType ease : EaseType.values())
+		{
+			if (ease == EaseType.BEZIER)
+			{
+				continue;
+			}
+
+			EaseTable table = new EaseTable(t -> Ease.evaluate(ease, t));
+			double max = 0;
+			for (int i = 0; i <= POINTS; i++)
+			{
+				double t = (double) i / POINTS;
+				max = Math.max(max, Math.abs(table.get(t) - Ease.evaluate(ease, t)));
+			}
+			assertTrue(ease + " is off by " + max, max < MAX_ERROR);
+		}
+	}
+
+	@Test
+	public void testEnds()
+	{
+		for (EaseType ease : EaseType.values())
+		{
+			if (ease == EaseType.BEZIER)
+			{
+				continue;
+			}
+
+			EaseTable table = new EaseTable(t -> Ease.evaluate(ease, t));
+			assertEquals(ease.toString(), 0, table.get(0), 0);
+			assertEquals(ease.toString(), 1, table.get(1), 0);
+			assertEquals(ease.toString(), 0, table.get(-0.5), 0);
+			assertEquals(ease.toString(), 1, table.get(1.5), 0);
+			assertEquals(ease.toString(), 0, table.get(Double.NaN), 0);
+
+			// Just inside the ends, where EXPO jumps
+			for (double t : new double[]{1e-9, 1e-4, 1 - 1e-4, 1 - 1e-9})
+			{
+				assertEquals(ease + " at " + t, Ease.evaluate(ease, t), table.get(t), MAX_ERROR);
+			}
+		}
+	}
+}
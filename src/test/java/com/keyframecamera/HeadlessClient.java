@@ -0,0 +1,111 @@
+package com.keyframecamera;
+
+import java.lang.reflect.Proxy;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.WorldView;
+
+/**
+ * A {@link Client} that needs no game. Every call is answered by a proxy that
+ * reports a logged-in client in free camera mode, running on its own client
+ * thread, and otherwise returns zero, false or null. Other calls, such as
+ * camera writes, are passed to a listener or dropped.
+ */
+final class HeadlessClient
+{
+	private static final int SCENE_SIZE = 104;
+
+	private HeadlessClient()
+	{
+	}
+
+	static Client create()
+	{
+		return create((method, args) -> {});
+	}
+
+	static Client create(BiConsumer<String, Object[]> calls)
+	{
+		WorldView worldView = proxy(WorldView.class, method -> {
+			switch (method)
+			{
+				case "getSizeX":
+				case "getSizeY":
+					return SCENE_SIZE;
+				default:
+					return null;
+			}
+		});
+
+		return proxy(Client.class, method -> {
+			switch (method)
+			{
+				case "isClientThread":
+					return true;
+				case "getCameraMode":
+					return 1;
+				case "getGameState":
+					return GameState.LOGGED_IN;
+				case "getTopLevelWorldView":
+					return worldView;
+				default:
+					return null;
+			}
+		}, calls);
+	}
+
+	private static <T> T proxy(Class<T> type, Function<String, Object> answers)
+	{
+		return proxy(type, answers, (method, args) -> {});
+	}
+
+	private static <T> T proxy(Class<T> type, Function<String, Object> answers, BiConsumer<String, Object[]> calls)
+	{
+		Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+			Object answer = answers.apply(method.getName());
+			if (answer != null)
+			{
+				return answer;
+			}
+			calls.accept(method.getName(), args);
+
+			Class<?> returnType = method.getReturnType();
+			if (returnType == boolean.class)
+			{
+				return false;
+			}
+			if (returnType == int.class)
+			{
+				return 0;
+			}
+			if (returnType == long.class)
+			{
+				return 0L;
+			}
+			if (returnType == double.class)
+			{
+				return 0.0;
+			}
+			if (returnType == float.class)
+			{
+				return 0f;
+			}
+			if (returnType == short.class)
+			{
+				return (short) 0;
+			}
+			if (returnType == byte.class)
+			{
+				return (byte) 0;
+			}
+			if (returnType == char.class)
+			{
+				return (char) 0;
+			}
+			return null;
+		});
+		return type.cast(proxy);
+	}
+}
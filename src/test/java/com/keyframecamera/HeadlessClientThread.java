@@ -0,0 +1,29 @@
+package com.keyframecamera;
+
+import java.util.function.BooleanSupplier;
+import net.runelite.client.callback.ClientThread;
+
+/**
+ * Runs everything straight away on the calling thread, which
+ * {@link HeadlessClient} treats as the client thread.
+ */
+class HeadlessClientThread extends ClientThread
+{
+	@Override
+	public void invoke(Runnable runnable)
+	{
+		runnable.run();
+	}
+
+	@Override
+	public void invoke(BooleanSupplier supplier)
+	{
+		supplier.getAsBoolean();
+	}
+
+	@Override
+	public void invokeLater(Runnable runnable)
+	{
+		runnable.run();
+	}
+}
@@ -0,0 +1,26 @@
+package com.keyframecamera;
+
+/**
+ * The plugin's default config, with playback options that benchmarks vary.
+ */
+class HeadlessConfig implements KeyframeCameraConfig
+{
+	private final boolean bakePlayback;
+
+	HeadlessConfig(boolean bakePlayback)
+	{
+		this.bakePlayback = bakePlayback;
+	}
+
+	@Override
+	public boolean loop()
+	{
+		return true;
+	}
+
+	@Override
+	public boolean bakePlayback()
+	{
+		return bakePlayback;
+	}
+}
@@ -0,0 +1,24 @@
+package com.keyframecamera;
+
+/**
+ * Just enough of the plugin for {@link Playback}: it holds the sequence, the
+ * camera is always free, and there is no panel to redraw.
+ */
+class HeadlessPlugin extends KeyframeCameraPlugin
+{
+	@Override
+	public boolean freeCamEnabled()
+	{
+		return true;
+	}
+
+	@Override
+	public void toggleCameraMode()
+	{
+	}
+
+	@Override
+	public void redrawPanel()
+	{
+	}
+}
@@ -0,0 +1,128 @@
+package com.keyframecamera;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest
+{
+	// A bucket is at most this much wider than its lower bound
+	private static final double RESOLUTION = 1.0 / LatencyHistogram.SUB_BUCKETS;
+
+	@Test
+	public void testLayout()
+	{
+		assertEquals(544, LatencyHistogram.BUCKETS);
+		assertEquals(0, LatencyHistogram.bucketOf(0));
+		assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+		assertEquals(31L << 32, LatencyHistogram.lowerBound(LatencyHistogram.BUCKETS - 1));
+	}
+
+	@Test
+	public void testSmallDurationsAreExact()
+	{
+		for (int nanos = 0; nanos < 2 * LatencyHistogram.SUB_BUCKETS; nanos++)
+		{
+			assertEquals(nanos, LatencyHistogram.bucketOf(nanos));
+			assertEquals(nanos, LatencyHistogram.lowerBound(nanos));
+		}
+	}
+
+	@Test
+	public void testBucketBoundaries()
+	{
+		for (int bucket = 1; bucket < LatencyHistogram.BUCKETS; bucket++)
+		{
+			long lower = LatencyHistogram.lowerBound(bucket);
+			long upper = LatencyHistogram.lowerBound(bucket + 1);
+			assertEquals("start of " + bucket, bucket, LatencyHistogram.bucketOf(lower));
+			assertEquals("end of " + bucket, bucket, LatencyHistogram.bucketOf(upper - 1));
+			assertEquals("before " + bucket, bucket - 1, LatencyHistogram.bucketOf(lower - 1));
+			assertTrue("width of " + bucket, upper - lower <= Math.max(1, lower * RESOLUTION));
+		}
+	}
+
+	@Test
+	public void testEmpty()
+	{
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.percentile(0.5));
+		assertEquals(0, histogram.getMax());
+	}
+
+	@Test
+	public void testConstant()
+	{
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < 100; i++)
+		{
+			histogram.record(1_234_567);
+		}
+		// Capped at the largest recorded, which here is every one of them
+		assertEquals(1_234_567, histogram.percentile(0.01));
+		assertEquals(1_234_567, histogram.percentile(0.5));
+		assertEquals(1_234_567, histogram.percentile(1));
+	}
+
+	@Test
+	public void testUniform()
+	{
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long micros = 1; micros <= 1000; micros++)
+		{
+			histogram.record(micros * 1000);
+		}
+		assertEquals(1000, histogram.getCount());
+		assertEquals(1_000_000, histogram.getMax());
+		assertWithinResolution(500_000, histogram.percentile(0.5));
+		assertWithinResolution(900_000, histogram.percentile(0.9));
+		assertWithinResolution(990_000, histogram.percentile(0.99));
+		assertEquals(1_000_000, histogram.percentile(1));
+	}
+
+	@Test
+	public void testBimodal()
+	{
+		// Mostly quick frames with the odd hitch
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < 1000; i++)
+		{
+			histogram.record(i % 50 == 0 ? 40_000_000 : 300_000 + i);
+		}
+		assertWithinResolution(300_500, histogram.percentile(0.5));
+		assertWithinResolution(300_999, histogram.percentile(0.98));
+		assertEquals(40_000_000, histogram.percentile(0.99));
+	}
+
+	@Test
+	public void testOverflowBucket()
+	{
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(-5);
+		histogram.record(10L << 40);
+		assertEquals(2, histogram.getCount());
+		assertEquals(0, histogram.percentile(0.5));
+		assertEquals(10L << 40, histogram.percentile(1));
+	}
+
+	@Test
+	public void testReset()
+	{
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(1000);
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMax());
+		assertEquals(0, histogram.percentile(1));
+	}
+
+	/**
+	 * Percentiles are the upper bound of a bucket, so they can only read high.
+	 */
+	private static void assertWithinResolution(long expected, long actual)
+	{
+		assertTrue(actual + " is below " + expected, actual >= expected);
+		assertTrue(actual + " is too far above " + expected, actual <= expected * (1 + RESOLUTION));
+	}
+}
@@ -0,0 +1,425 @@
+package com.keyframecamera;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Plays a sequence without a game. {@link Playback#tick()} is driven by a
+ * {@link SimulatedClock} that advances one frame at a time, either at a fixed
+ * frame rate or by the frame times in a recorded trace. The camera a real
+ * client would have been given is read off a {@link CameraRecorder}. The same
+ * sequence and frame times always give the same trajectory, so runs can be
+ * compared before and after a change.
+ * <p>
+ * Usage: {@code PlaybackSimulator <sequence> [--entry name] [--fps n | --trace file] [--bake] [--loop ms] [--seek at:to]... [--out file]}
+ * <ul>
+ * <li>{@code --entry} picks a sequence from an archive</li>
+ * <li>{@code --trace} reads frame times in ms, one per line, repeating them if the sequence is longer</li>
+ * <li>{@code --loop} keeps looping until that many ms have been played, instead of stopping at the end</li>
+ * <li>{@code --seek} jumps to {@code to} ms into the sequence once {@code at} ms have been played</li>
+ * <li>{@code --out} writes the trajectory as CSV, one row per frame</li>
+ * </ul>
+ * A summary of jitter, keyframes that no frame landed in and the time spent in
+ * each tick is printed to stdout. Tick times are real, so they are the only
+ * numbers that vary between runs.
+ */
+public class PlaybackSimulator
+{
+	private static final double NANOS_PER_MILLI = 1_000_000.0;
+	private static final int JAU_PER_TURN = 2048;
+
+	/**
+	 * The camera after one tick.
+	 */
+	static class Frame
+	{
+		final double time;
+		// Playhead position in the sequence, which wraps while looping
+		final double position;
+		final boolean seeked;
+		final int keyframe;
+		final double focalX;
+		final double focalY;
+		final double focalZ;
+		final int pitch;
+		final int yaw;
+		final int zoom;
+		final long tickNanos;
+
+		Frame(double time, double position, boolean seeked, int keyframe, CameraRecorder camera, long tickNanos)
+		{
+			this.time = time;
+			this.position = position;
+			this.seeked = seeked;
+			this.keyframe = keyframe;
+			this.focalX = camera.getFocalX();
+			this.focalY = camera.getFocalY();
+			this.focalZ = camera.getFocalZ();
+			this.pitch = camera.getPitch();
+			this.yaw = camera.getYaw();
+			this.zoom = camera.getZoom();
+			this.tickNanos = tickNanos;
+		}
+	}
+
+	/**
+	 * What a viewer would notice in a run. Jitter is how much the velocity of
+	 * each channel changes from one frame to the next, per second, so uneven
+	 * steps show up even when the path itself is right; frames either side of a
+	 * seek or a loop wrapping round are left out. Missed keyframes are the ones
+	 * whose segment a single frame stepped over, numbered from 1 as in the
+	 * keyframe table, once for each time it happened; cuts, which have no
+	 * length, are expected to be skipped and aren't counted.
+	 */
+	static class Summary
+	{
+		final List<Integer> missedKeyframes = new ArrayList<>();
+		final Jitter focal;
+		final Jitter pitch;
+		final Jitter yaw;
+		final long tickP50;
+		final long tickP99;
+		final long tickMax;
+
+		Summary(Sequence sequence, List<Frame> frames)
+		{
+			int previous = -1;
+			double previousPosition = 0;
+			for (Frame frame : frames)
+			{
+				if (!frame.seeked)
+				{
+					if (frame.position < previousPosition)
+					{
+						addMissed(sequence, previous + 1, sequence.size() - 1);
+						previous = -1;
+					}
+					addMissed(sequence, previous + 1, frame.keyframe);
+				}
+				previous = frame.keyframe;
+				previousPosition = frame.position;
+			}
+
+			double[] focal = new double[Math.max(0, frames.size() - 2)];
+			double[] pitch = new double[focal.length];
+			double[] yaw = new double[focal.length];
+			int changes = 0;
+			for (int i = 2; i < frames.size(); i++)
+			{
+				Frame a = frames.get(i - 2);
+				Frame b = frames.get(i - 1);
+				Frame c = frames.get(i);
+				if (jumped(a, b) || jumped(b, c))
+				{
+					continue;
+				}
+				double before = (b.time - a.time) / 1000;
+				double after = (c.time - b.time) / 1000;
+
+				focal[changes] = Math.sqrt(
+					square((c.focalX - b.focalX) / after - (b.focalX - a.focalX) / before)
+					+ square((c.focalY - b.focalY) / after - (b.focalY - a.focalY) / before)
+					+ square((c.focalZ - b.focalZ) / after - (b.focalZ - a.focalZ) / before));
+				pitch[changes] = Math.abs((c.pitch - b.pitch) / after - (b.pitch - a.pitch) / before);
+				yaw[changes] = Math.abs(angle(c.yaw - b.yaw) / after - angle(b.yaw - a.yaw) / before);
+				changes++;
+			}
+			this.focal = new Jitter(focal, changes);
+			this.pitch = new Jitter(pitch, changes);
+			this.yaw = new Jitter(yaw, changes);
+
+			long[] ticks = frames.stream().mapToLong(f -> f.tickNanos).sorted().toArray();
+			tickP50 = percentile(ticks, 0.5);
+			tickP99 = percentile(ticks, 0.99);
+			tickMax = ticks.length > 0 ? ticks[ticks.length - 1] : 0;
+		}
+
+		private void addMissed(Sequence sequence, int from, int to)
+		{
+			for (int i = Math.max(0, from); i < to; i++)
+			{
+				if (sequence.getKeyframeDuration(i) > 0)
+				{
+					missedKeyframes.add(i + 1);
+				}
+			}
+		}
+
+		private static boolean jumped(Frame from, Frame to)
+		{
+			return to.seeked || to.position < from.position;
+		}
+	}
+
+	static class Jitter
+	{
+		final double rms;
+		final double max;
+
+		Jitter(double[] changes, int count)
+		{
+			double sum = 0;
+			double max = 0;
+			for (int i = 0; i < count; i++)
+			{
+				sum += changes[i] * changes[i];
+				max = Math.max(max, changes[i]);
+			}
+			this.rms = count > 0 ? Math.sqrt(sum / count) : 0;
+			this.max = max;
+		}
+	}
+
+	private final Sequence sequence;
+	private final boolean bake;
+	private long loopNanos;
+	// Simulated time in ns to seek at, to position in ms
+	private final NavigableMap<Long, Long> seeks = new TreeMap<>();
+	// What playback itself measured during the last run
+	private PlaybackStats stats;
+
+	PlaybackSimulator(Sequence sequence, boolean bake)
+	{
+		this.sequence = sequence;
+		this.bake = bake;
+	}
+
+	/**
+	 * Loops the sequence until {@code ms} have been played, rather than
+	 * playing it once through.
+	 */
+	void setLoopFor(long ms)
+	{
+		loopNanos = ms * (long) NANOS_PER_MILLI;
+	}
+
+	/**
+	 * Seeks to {@code to} ms into the sequence on the first frame at or after
+	 * {@code at} ms have been played.
+	 */
+	void addSeek(long at, long to)
+	{
+		seeks.put(at * (long) NANOS_PER_MILLI, to);
+	}
+
+	/**
+	 * Plays the sequence, taking each frame's length in nanoseconds from
+	 * {@code frameNanos}.
+	 */
+	List<Frame> run(LongSupplier frameNanos)
+	{
+		CameraRecorder camera = new CameraRecorder();
+		SimulatedClock clock = new SimulatedClock();
+		HeadlessPlugin plugin = new HeadlessPlugin();
+		plugin.setSequence(sequence);
+
+		Playback playback = new Playback(plugin, new HeadlessConfig(bake), HeadlessClient.create(camera), new HeadlessClientThread(), clock);
+		playback.setLoop(loopNanos > 0);
+		playback.play();
+		stats = playback.getStats();
+
+		NavigableMap<Long, Long> pending = new TreeMap<>(seeks);
+		List<Frame> frames = new ArrayList<>();
+		while (playback.isPlaying() && (loopNanos == 0 || clock.nanoTime() < loopNanos))
+		{
+			long frame = frameNanos.getAsLong();
+			if (frame <= 0)
+			{
+				throw new IllegalArgumentException("Frame times must be positive");
+			}
+			clock.advance(frame);
+
+			boolean seeked = false;
+			while (!pending.isEmpty() && pending.firstKey() <= clock.nanoTime())
+			{
+				playback.seek(pending.pollFirstEntry().getValue());
+				seeked = true;
+			}
+
+			long start = System.nanoTime();
+			playback.tick();
+			long tickNanos = System.nanoTime() - start;
+
+			// Stopping at the end resets the playhead, but the last frame showed the end
+			double position = playback.isPlaying() ? playback.elapsedNanos() / NANOS_PER_MILLI : sequence.getSequenceDuration();
+			frames.add(new Frame(clock.nanoTime() / NANOS_PER_MILLI, position, seeked, playback.getCurrentKeyframeIndex(), camera, tickNanos));
+		}
+		return frames;
+	}
+
+	PlaybackStats getStats()
+	{
+		return stats;
+	}
+
+	static LongSupplier fixedRate(double fps)
+	{
+		long frame = Math.round(1_000_000_000 / fps);
+		return () -> frame;
+	}
+
+	/**
+	 * Frame times from a trace file, in ms, one per line. Blank lines and
+	 * lines starting with # are ignored. The trace repeats once exhausted.
+	 */
+	static LongSupplier trace(Path path) throws IOException
+	{
+		long[] frames = Files.readAllLines(path, StandardCharsets.UTF_8).stream()
+			.map(String::trim)
+			.filter(line -> !line.isEmpty() && !line.startsWith("#"))
+			.mapToLong(line -> Math.round(Double.parseDouble(line) * NANOS_PER_MILLI))
+			.toArray();
+		if (frames.length == 0)
+		{
+			throw new IOException("No frame times in " + path);
+		}
+
+		int[] next = {0};
+		return () -> frames[next[0]++ % frames.length];
+	}
+
+	static void writeTrajectory(List<Frame> frames, Writer writer)
+	{
+		PrintWriter out = new PrintWriter(writer);
+		out.println("frame,time_ms,position_ms,keyframe,focal_x,focal_y,focal_z,pitch,yaw,zoom,tick_ns");
+		for (int i = 0; i < frames.size(); i++)
+		{
+			Frame f = frames.get(i);
+			out.printf(Locale.ROOT, "%d,%.3f,%.3f,%d,%.3f,%.3f,%.3f,%d,%d,%d,%d%n",
+				i, f.time, f.position, f.keyframe, f.focalX, f.focalY, f.focalZ, f.pitch, f.yaw, f.zoom, f.tickNanos);
+		}
+		out.flush();
+	}
+
+	Summary summarize(List<Frame> frames)
+	{
+		return new Summary(sequence, frames);
+	}
+
+	void printSummary(List<Frame> frames, PrintStream out)
+	{
+		Summary summary = summarize(frames);
+		out.printf(Locale.ROOT, "%d keyframes, %d ms, %d frames%n", sequence.size(), sequence.getSequenceDuration(), frames.size());
+
+		List<Integer> missed = summary.missedKeyframes;
+		out.printf("Missed keyframes: %d%s%n", missed.size(),
+			missed.isEmpty() ? "" : " " + missed.subList(0, Math.min(missed.size(), 20)));
+
+		printJitter(out, "focal", "units/s", summary.focal);
+		printJitter(out, "pitch", "JAU/s", summary.pitch);
+		printJitter(out, "yaw", "JAU/s", summary.yaw);
+
+		if (!frames.isEmpty())
+		{
+			out.printf(Locale.ROOT, "Tick: p50 %d ns, p99 %d ns, max %d ns%n", summary.tickP50, summary.tickP99, summary.tickMax);
+		}
+	}
+
+	private static void printJitter(PrintStream out, String channel, String unit, Jitter jitter)
+	{
+		out.printf(Locale.ROOT, "Jitter %s: rms %.2f, max %.2f %s per frame%n", channel, jitter.rms, jitter.max, unit);
+	}
+
+	private static double square(double value)
+	{
+		return value * value;
+	}
+
+	/**
+	 * A yaw difference taken the short way round.
+	 */
+	private static int angle(int difference)
+	{
+		int wrapped = Math.floorMod(difference, JAU_PER_TURN);
+		return wrapped >= JAU_PER_TURN / 2 ? wrapped - JAU_PER_TURN : wrapped;
+	}
+
+	private static long percentile(long[] sorted, double fraction)
+	{
+		return sorted.length > 0 ? sorted[Math.min(sorted.length - 1, (int) (fraction * sorted.length))] : 0;
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length == 0)
+		{
+			System.err.println("Usage: PlaybackSimulator <sequence> [--entry name] [--fps n | --trace file] [--bake] [--loop ms] [--seek at:to]... [--out file]");
+			System.exit(2);
+		}
+
+		String file = args[0];
+		String entry = null;
+		LongSupplier frames = fixedRate(60);
+		boolean bake = false;
+		long loop = 0;
+		Map<Long, Long> seeks = new TreeMap<>();
+		Path out = null;
+		for (int i = 1; i < args.length; i++)
+		{
+			switch (args[i])
+			{
+				case "--entry":
+					entry = args[++i];
+					break;
+				case "--fps":
+					frames = fixedRate(Double.parseDouble(args[++i]));
+					break;
+				case "--trace":
+					frames = trace(Paths.get(args[++i]));
+					break;
+				case "--bake":
+					bake = true;
+					break;
+				case "--loop":
+					loop = Long.parseLong(args[++i]);
+					break;
+				case "--seek":
+					String[] seek = args[++i].split(":");
+					seeks.put(Long.parseLong(seek[0]), Long.parseLong(seek[1]));
+					break;
+				case "--out":
+					out = Paths.get(args[++i]);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option " + args[i] + "; expected one of " + Arrays.asList("--entry", "--fps", "--trace", "--bake", "--loop", "--seek", "--out"));
+			}
+		}
+
+		HeadlessConfig config = new HeadlessConfig(bake);
+		Sequence sequence = entry != null
+			? SequenceIO.loadFromArchive(Paths.get(file), entry, HeadlessClient.create(), config)
+			: SequenceIO.load(file, HeadlessClient.create(), config);
+		if (sequence == null || sequence.size() < 2)
+		{
+			System.err.println("Could not load a sequence with at least two keyframes from " + file);
+			System.exit(1);
+		}
+
+		PlaybackSimulator simulator = new PlaybackSimulator(sequence, bake);
+		simulator.setLoopFor(loop);
+		seeks.forEach(simulator::addSeek);
+		List<Frame> trajectory = simulator.run(frames);
+		if (out != null)
+		{
+			try (Writer writer = Files.newBufferedWriter(out, StandardCharsets.UTF_8))
+			{
+				writeTrajectory(trajectory, writer);
+			}
+		}
+		simulator.printSummary(trajectory, System.out);
+	}
+}
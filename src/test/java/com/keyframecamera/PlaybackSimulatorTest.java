@@ -0,0 +1,211 @@
+package com.keyframecamera;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongSupplier;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Plays sequences through {@link PlaybackSimulator} and checks what a viewer
+ * would see. Most cases use a straight path at constant speed, where any
+ * jitter at all means a frame was shown at the wrong time.
+ */
+public class PlaybackSimulatorTest
+{
+	private static final int KEYFRAMES = 11;
+	private static final long SEGMENT = 500;
+	private static final long DURATION = (KEYFRAMES - 1) * SEGMENT;
+	// Units per second of focal point velocity change; a single dropped or
+	// repeated frame on the straight path shows up as about 2000
+	private static final double MAX_JITTER = 1;
+
+	@Test
+	public void testOnceThrough()
+	{
+		PlaybackSimulator simulator = new PlaybackSimulator(straightPath(), false);
+		List<PlaybackSimulator.Frame> frames = simulator.run(PlaybackSimulator.fixedRate(60));
+
+		assertSmooth(simulator.summarize(frames));
+		assertEquals(DURATION * 60 / 1000, frames.size(), 1);
+		PlaybackSimulator.Frame last = frames.get(frames.size() - 1);
+		assertEquals(DURATION, last.position, 0);
+		assertEquals(1000 + DURATION * 2, last.focalX, 0);
+
+		// Ticks take no time on the simulated clock
+		PlaybackStats.Latency ticks = simulator.getStats().getTickLatency();
+		assertEquals(frames.size(), ticks.getCount());
+		assertEquals(0, ticks.getMax());
+		assertEquals(0, simulator.getStats().getSkippedKeyframes());
+	}
+
+	@Test
+	public void testUnevenFrameTimes()
+	{
+		// Alternating short and long frames with an occasional hitch
+		long[] pattern = {8_000_000, 25_000_000, 12_000_000, 90_000_000, 16_000_000};
+		int[] next = {0};
+		LongSupplier frameNanos = () -> pattern[next[0]++ % pattern.length];
+
+		// Looping, as the camera stopping at the end is a real change of speed
+		PlaybackSimulator simulator = new PlaybackSimulator(straightPath(), false);
+		simulator.setLoopFor(DURATION * 2);
+		assertSmooth(simulator.summarize(simulator.run(frameNanos)));
+	}
+
+	@Test
+	public void testLooping()
+	{
+		PlaybackSimulator simulator = new PlaybackSimulator(straightPath(), false);
+		simulator.setLoopFor(DURATION * 7 / 2);
+		List<PlaybackSimulator.Frame> frames = simulator.run(PlaybackSimulator.fixedRate(60));
+
+		assertSmooth(simulator.summarize(frames));
+
+		// The playhead advances by exactly the frame time, modulo the duration
+		int wraps = 0;
+		for (int i = 1; i < frames.size(); i++)
+		{
+			PlaybackSimulator.Frame a = frames.get(i - 1);
+			PlaybackSimulator.Frame b = frames.get(i);
+			double step = b.position - a.position;
+			if (step < 0)
+			{
+				step += DURATION;
+				wraps++;
+			}
+			assertEquals("frame " + i, b.time - a.time, step, 1e-6);
+		}
+		assertEquals(3, wraps);
+	}
+
+	@Test
+	public void testLoopingCountsMissedKeyframesEachTime()
+	{
+		Sequence sequence = withShortSegment();
+		PlaybackSimulator simulator = new PlaybackSimulator(sequence, false);
+		simulator.setLoopFor(sequence.getSequenceDuration() * 3);
+		PlaybackSimulator.Summary summary = simulator.summarize(simulator.run(PlaybackSimulator.fixedRate(60)));
+
+		// Frames fall at different points of each pass, so some may land in it
+		assertTrue(summary.missedKeyframes.size() <= 3);
+		for (int missed : summary.missedKeyframes)
+		{
+			assertEquals(3, missed);
+		}
+		// Playback counts the same ones, across the wraps too
+		assertEquals(summary.missedKeyframes.size(), simulator.getStats().getSkippedKeyframes());
+	}
+
+	@Test
+	public void testSeeking()
+	{
+		PlaybackSimulator simulator = new PlaybackSimulator(straightPath(), false);
+		simulator.addSeek(1000, 3500);
+		simulator.addSeek(2000, 250);
+		List<PlaybackSimulator.Frame> frames = simulator.run(PlaybackSimulator.fixedRate(60));
+
+		// Keyframes jumped over by a seek aren't missed
+		assertSmooth(simulator.summarize(frames));
+
+		int seeks = 0;
+		for (PlaybackSimulator.Frame frame : frames)
+		{
+			if (frame.seeked)
+			{
+				assertEquals(seeks == 0 ? 3500 : 250, frame.position, 0);
+				assertEquals(1000 + frame.position * 2, frame.focalX, 1e-6);
+				seeks++;
+			}
+		}
+		assertEquals(2, seeks);
+		assertEquals(0, simulator.getStats().getSkippedKeyframes());
+		// Playing on to the end after going back
+		assertEquals(DURATION, frames.get(frames.size() - 1).position, 0);
+	}
+
+	@Test
+	public void testBaked()
+	{
+		PlaybackSimulator simulator = new PlaybackSimulator(straightPath(), true);
+		simulator.setLoopFor(DURATION * 2);
+		simulator.addSeek(3000, 4800);
+		assertSmooth(simulator.summarize(simulator.run(PlaybackSimulator.fixedRate(144))));
+	}
+
+	@Test
+	public void testBakedFollowsLivePlayback()
+	{
+		for (long seed = 0; seed < 10; seed++)
+		{
+			Sequence sequence = TestSequences.create(40, seed);
+			sequence.setInterpolation(InterpolationMode.CATMULL_ROM);
+			List<PlaybackSimulator.Frame> live = new PlaybackSimulator(sequence, false).run(PlaybackSimulator.fixedRate(60));
+			List<PlaybackSimulator.Frame> baked = new PlaybackSimulator(sequence, true).run(PlaybackSimulator.fixedRate(60));
+
+			assertEquals(live.size(), baked.size());
+			for (int i = 0; i < live.size(); i++)
+			{
+				PlaybackSimulator.Frame a = live.get(i);
+				PlaybackSimulator.Frame b = baked.get(i);
+				double distance = Math.sqrt(square(a.focalX - b.focalX) + square(a.focalY - b.focalY) + square(a.focalZ - b.focalZ));
+				// Well within a millisecond's travel, including either side of cuts
+				assertTrue("seed " + seed + " frame " + i + " is " + distance + " from live playback", distance < 20);
+			}
+		}
+	}
+
+	@Test
+	public void testShortSegmentIsMissed()
+	{
+		PlaybackSimulator simulator = new PlaybackSimulator(withShortSegment(), false);
+		assertEquals(Collections.singletonList(3), simulator.summarize(simulator.run(PlaybackSimulator.fixedRate(60))).missedKeyframes);
+		assertEquals(1, simulator.getStats().getSkippedKeyframes());
+
+		// Frames every 4 ms land in it
+		simulator = new PlaybackSimulator(withShortSegment(), false);
+		assertEquals(0, simulator.summarize(simulator.run(PlaybackSimulator.fixedRate(240))).missedKeyframes.size());
+		assertEquals(0, simulator.getStats().getSkippedKeyframes());
+	}
+
+	private static void assertSmooth(PlaybackSimulator.Summary summary)
+	{
+		assertEquals("missed keyframes " + summary.missedKeyframes, 0, summary.missedKeyframes.size());
+		assertTrue("focal jitter " + summary.focal.max, summary.focal.max < MAX_JITTER);
+		assertEquals(0, summary.pitch.max, 0);
+		assertEquals(0, summary.yaw.max, 0);
+	}
+
+	/**
+	 * Keyframes every 500 ms along a straight line, at 2 units per ms.
+	 */
+	private static Sequence straightPath()
+	{
+		Sequence sequence = TestSequences.empty();
+		for (int i = 0; i < KEYFRAMES; i++)
+		{
+			sequence.add(i * SEGMENT, 1000 + i * SEGMENT * 2, -200, 2000, 0.5, 1, 600, EaseType.LINEAR);
+		}
+		return sequence;
+	}
+
+	/**
+	 * A 5 ms segment starting 1010 ms in, between frames at 60 fps.
+	 */
+	private static Sequence withShortSegment()
+	{
+		Sequence sequence = TestSequences.empty();
+		long[] timestamps = {0, 500, 1010, 1015, 1500, 2000};
+		for (int i = 0; i < timestamps.length; i++)
+		{
+			sequence.add(timestamps[i], 1000 + timestamps[i], -200, 2000, 0.5, 1, 600, EaseType.LINEAR);
+		}
+		return sequence;
+	}
+
+	private static double square(double value)
+	{
+		return value * value;
+	}
+}
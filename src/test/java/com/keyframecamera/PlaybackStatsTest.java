@@ -0,0 +1,88 @@
+package com.keyframecamera;
+
+import java.io.StringWriter;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+public class PlaybackStatsTest
+{
+	@Test
+	public void testSkippedKeyframes()
+	{
+		PlaybackStats stats = new PlaybackStats();
+		Sequence sequence = withCut();
+
+		// Staying in a segment, or moving to the next, skips nothing
+		stats.recordKeyframes(sequence, 2, 2);
+		stats.recordKeyframes(sequence, 2, 3);
+		assertEquals(0, stats.getSkippedKeyframes());
+
+		stats.recordKeyframes(sequence, 0, 3);
+		assertEquals(2, stats.getSkippedKeyframes());
+
+		// Keyframe 5 starts a cut, which has no length to land in
+		stats.recordKeyframes(sequence, 3, 7);
+		assertEquals(4, stats.getSkippedKeyframes());
+	}
+
+	@Test
+	public void testSkippedKeyframesAcrossWrap()
+	{
+		PlaybackStats stats = new PlaybackStats();
+		Sequence sequence = withCut();
+
+		// From the second to last segment round to the first; the last keyframe has no segment
+		stats.recordKeyframes(sequence, 8, 0);
+		assertEquals(0, stats.getSkippedKeyframes());
+
+		// Skips 8, then 0 and 1 after wrapping
+		stats.recordKeyframes(sequence, 7, 2);
+		assertEquals(3, stats.getSkippedKeyframes());
+
+		// Skips 6, 7 and 8 but not the cut at 5, then 0
+		stats.recordKeyframes(sequence, 4, 1);
+		assertEquals(7, stats.getSkippedKeyframes());
+
+		// Playing on to the end once the loop has wrapped
+		stats.recordKeyframes(sequence, 8, 9);
+		assertEquals(7, stats.getSkippedKeyframes());
+	}
+
+	@Test
+	public void testCsv()
+	{
+		PlaybackStats stats = new PlaybackStats();
+		for (int i = 0; i < 10; i++)
+		{
+			stats.recordTick(1000);
+		}
+		stats.recordQueueDelay(20);
+		stats.recordKeyframes(withCut(), 0, 3);
+
+		StringWriter writer = new StringWriter();
+		stats.writeCsv(writer);
+		assertEquals(String.format("metric,count,p50_ns,p99_ns,max_ns%n"
+			+ "tick,10,1000,1000,1000%n"
+			+ "queue_delay,1,20,20,20%n"
+			+ "skipped_keyframes,2,,,%n"), writer.toString());
+
+		stats.reset();
+		assertEquals(0, stats.getTickLatency().getCount());
+		assertEquals(0, stats.getQueueDelay().getMax());
+		assertEquals(0, stats.getSkippedKeyframes());
+	}
+
+	/**
+	 * Ten keyframes 100 ms apart, except that keyframe 5 cuts straight to 6.
+	 */
+	private static Sequence withCut()
+	{
+		Sequence sequence = TestSequences.empty();
+		long[] timestamps = {0, 100, 200, 300, 400, 500, 500, 600, 700, 800};
+		for (long timestamp : timestamps)
+		{
+			sequence.add(timestamp, timestamp, 0, 0, 0.5, 1, 600, EaseType.LINEAR);
+		}
+		return sequence;
+	}
+}
@@ -0,0 +1,254 @@
+package com.keyframecamera;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class SequenceArchiveTest
+{
+	// Where the header keeps the table's offset
+	private static final int TOC_OFFSET_POSITION = 8;
+
+	private Path path;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		path = Files.createTempFile("archive", ".kfa");
+		Files.delete(path);
+	}
+
+	@After
+	public void tearDown() throws IOException
+	{
+		Files.deleteIfExists(path);
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException
+	{
+		try (SequenceArchive archive = SequenceArchive.open(path, true))
+		{
+			append(archive, "intro", 1);
+			append(archive, "flyover", 2);
+			append(archive, "outro", 3);
+		}
+
+		try (SequenceArchive archive = SequenceArchive.open(path, false))
+		{
+			assertEquals(names("intro", "flyover", "outro"), names(archive));
+			assertEntry(archive, "intro", 1);
+			assertEntry(archive, "flyover", 2);
+			assertEntry(archive, "outro", 3);
+		}
+	}
+
+	@Test
+	public void testReplacingKeepsLatest() throws IOException
+	{
+		try (SequenceArchive archive = SequenceArchive.open(path, true))
+		{
+			append(archive, "intro", 1);
+			append(archive, "outro", 2);
+			append(archive, "intro", 3);
+			assertEntry(archive, "intro", 3);
+		}
+
+		try (SequenceArchive archive = SequenceArchive.open(path, false))
+		{
+			assertEquals(names("outro", "intro"), names(archive));
+			assertEntry(archive, "intro", 3);
+		}
+	}
+
+	@Test
+	public void testRebuildsDamagedToc() throws IOException
+	{
+		try (SequenceArchive archive = SequenceArchive.open(path, true))
+		{
+			append(archive, "intro", 1);
+			append(archive, "flyover", 2);
+			append(archive, "intro", 4);
+		}
+
+		// Flip a byte in the middle of the table
+		long tocOffset = tocOffset();
+		long size = Files.size(path);
+		corrupt(tocOffset + (size - tocOffset) / 2);
+
+		try (SequenceArchive archive = SequenceArchive.open(path, true))
+		{
+			assertEquals(names("flyover", "intro"), names(archive));
+			assertEntry(archive, "flyover", 2);
+			assertEntry(archive, "intro", 4);
+
+			append(archive, "outro", 5);
+		}
+
+		try (SequenceArchive archive = SequenceArchive.open(path, false))
+		{
+			assertEquals(names("flyover", "intro", "outro"), names(archive));
+			assertEntry(archive, "outro", 5);
+		}
+	}
+
+	@Test
+	public void testRebuildsAfterInterruptedAppend() throws IOException
+	{
+		try (SequenceArchive archive = SequenceArchive.open(path, true))
+		{
+			append(archive, "intro", 1);
+			append(archive, "flyover", 2);
+		}
+		long goodToc = tocOffset();
+
+		try (SequenceArchive archive = SequenceArchive.open(path, true))
+		{
+			append(archive, "outro", 3);
+		}
+
+		// As if the crash came partway through the new entry's data, before
+		// the new table was written
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE))
+		{
+			channel.truncate(goodToc + 40);
+		}
+
+		try (SequenceArchive archive = SequenceArchive.open(path, true))
+		{
+			assertEquals(names("intro", "flyover"), names(archive));
+			assertEntry(archive, "flyover", 2);
+			assertNull(archive.getEntry("outro"));
+
+			append(archive, "outro", 6);
+		}
+
+		try (SequenceArchive archive = SequenceArchive.open(path, false))
+		{
+			assertEquals(names("intro", "flyover", "outro"), names(archive));
+			assertEntry(archive, "outro", 6);
+		}
+	}
+
+	@Test
+	public void testRebuildStopsAtCorruptEntry() throws IOException
+	{
+		long secondEntry;
+		try (SequenceArchive archive = SequenceArchive.open(path, true))
+		{
+			append(archive, "intro", 1);
+			append(archive, "flyover", 2);
+			append(archive, "outro", 3);
+			secondEntry = archive.getEntry("flyover").getOffset();
+		}
+
+		// Damage both the second entry's data and the table
+		corrupt(secondEntry + 8);
+		corrupt(tocOffset() + 10);
+
+		try (SequenceArchive archive = SequenceArchive.open(path, true))
+		{
+			assertEquals(names("intro"), names(archive));
+			assertEntry(archive, "intro", 1);
+		}
+	}
+
+	@Test
+	public void testReadChecksData() throws IOException
+	{
+		long offset;
+		try (SequenceArchive archive = SequenceArchive.open(path, true))
+		{
+			append(archive, "intro", 1);
+			offset = archive.getEntry("intro").getOffset();
+		}
+
+		corrupt(offset + 30);
+
+		try (SequenceArchive archive = SequenceArchive.open(path, false))
+		{
+			archive.read("intro");
+			fail("read corrupt data");
+		}
+		catch (IOException e)
+		{
+			// expected
+		}
+	}
+
+	@Test
+	public void testRejectsOtherFiles() throws IOException
+	{
+		Files.write(path, "not an archive at all".getBytes(StandardCharsets.UTF_8));
+		try
+		{
+			SequenceArchive.open(path, true).close();
+			fail("opened a text file");
+		}
+		catch (IOException e)
+		{
+			// expected
+		}
+	}
+
+	private static void append(SequenceArchive archive, String name, long seed) throws IOException
+	{
+		archive.append(name, SequenceIO.serializeBinary(TestSequences.create(20, seed)));
+	}
+
+	private static void assertEntry(SequenceArchive archive, String name, long seed) throws IOException
+	{
+		Sequence sequence = SequenceIO.deserializeBinary(archive.read(name), HeadlessClient.create(), new HeadlessConfig(false));
+		TestSequences.assertSameSequence(TestSequences.create(20, seed), sequence);
+	}
+
+	private static List<String> names(String... names)
+	{
+		return Arrays.asList(names);
+	}
+
+	private static List<String> names(SequenceArchive archive)
+	{
+		List<String> names = new ArrayList<>();
+		for (SequenceArchive.Entry entry : archive.getEntries())
+		{
+			names.add(entry.getName());
+		}
+		return names;
+	}
+
+	private long tocOffset() throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+		{
+			ByteBuffer offset = ByteBuffer.allocate(Long.BYTES);
+			channel.read(offset, TOC_OFFSET_POSITION);
+			return offset.getLong(0);
+		}
+	}
+
+	private void corrupt(long position) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE))
+		{
+			ByteBuffer data = ByteBuffer.allocate(1);
+			channel.read(data, position);
+			data.put(0, (byte) ~data.get(0));
+			data.clear();
+			channel.write(data, position);
+		}
+	}
+}
@@ -0,0 +1,252 @@
+package com.keyframecamera;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SequenceIOTest
+{
+	// Offsets into the binary header
+	private static final int VERSION_OFFSET = 4;
+	private static final int FLAGS_OFFSET = 6;
+	private static final int HEADER_SIZE = 20;
+
+	@Test
+	public void testBinaryRoundTrip() throws IOException
+	{
+		for (long seed = 0; seed < 20; seed++)
+		{
+			Sequence sequence = TestSequences.create(50, seed);
+			sequence.setInterpolation(InterpolationMode.values()[(int) (seed % InterpolationMode.values().length)]);
+			sequence.setConstantSpeed(seed % 2 == 0);
+			TestSequences.assertSameSequence(sequence, deserialize(SequenceIO.serializeBinary(sequence)));
+		}
+	}
+
+	@Test
+	public void testBinaryRoundTripEmpty() throws IOException
+	{
+		Sequence sequence = TestSequences.empty();
+		TestSequences.assertSameSequence(sequence, deserialize(SequenceIO.serializeBinary(sequence)));
+	}
+
+	@Test
+	public void testBinaryReadsVersion1() throws IOException
+	{
+		// Version 1 is the same layout without any curves
+		Sequence sequence = withoutBezier(TestSequences.create(30, 1));
+		ByteBuffer data = SequenceIO.serializeBinary(sequence);
+		data.putShort(VERSION_OFFSET, (short) 1);
+		TestSequences.assertSameSequence(sequence, deserialize(data));
+	}
+
+	@Test
+	public void testBinaryRejectsBezierInVersion1()
+	{
+		Sequence sequence = withoutBezier(TestSequences.create(5, 2));
+		sequence.setEase(sequence.get(2), EaseType.BEZIER);
+		ByteBuffer data = SequenceIO.serializeBinary(sequence);
+		data.putShort(VERSION_OFFSET, (short) 1);
+		assertRejected(data);
+	}
+
+	@Test
+	public void testBinaryRejectsBadHeader()
+	{
+		ByteBuffer data = SequenceIO.serializeBinary(TestSequences.create(5, 3));
+		data.putInt(0, 0x12345678);
+		assertRejected(data);
+
+		data = SequenceIO.serializeBinary(TestSequences.create(5, 3));
+		data.putShort(VERSION_OFFSET, (short) (SequenceIO.FORMAT_VERSION + 1));
+		assertRejected(data);
+
+		data = SequenceIO.serializeBinary(TestSequences.create(5, 3));
+		data.putShort(VERSION_OFFSET, (short) 0);
+		assertRejected(data);
+
+		// Interpolation bits past the last mode
+		data = SequenceIO.serializeBinary(TestSequences.create(5, 3));
+		data.putShort(FLAGS_OFFSET, (short) (0b11 << 1));
+		assertRejected(data);
+
+		assertRejected(ByteBuffer.allocate(HEADER_SIZE - 1));
+	}
+
+	@Test
+	public void testBinaryRejectsTruncatedFile()
+	{
+		Sequence sequence = TestSequences.create(20, 4);
+		ByteBuffer data = SequenceIO.serializeBinary(sequence);
+		// Every cut short of the full file, including ones inside the curves
+		for (int length = 0; length < data.limit(); length++)
+		{
+			ByteBuffer truncated = data.duplicate();
+			truncated.limit(length);
+			assertRejected(truncated);
+		}
+	}
+
+	@Test
+	public void testBinaryRejectsUnknownEase()
+	{
+		Sequence sequence = TestSequences.create(5, 5);
+		ByteBuffer data = SequenceIO.serializeBinary(sequence);
+		int easeOffset = HEADER_SIZE + sequence.size() * (Long.BYTES + 5 * Double.BYTES + Integer.BYTES);
+		data.put(easeOffset + 3, (byte) EaseType.values().length);
+		assertRejected(data);
+	}
+
+	@Test
+	public void testBinaryRejectsInvalidCurve()
+	{
+		Sequence sequence = TestSequences.empty();
+		sequence.add(0, 0, 0, 0, 0, 0, 0, EaseType.BEZIER, BezierEase.of(0.25, 0.1, 0.25, 1));
+		ByteBuffer data = SequenceIO.serializeBinary(sequence);
+		// x1 must be within [0, 1]
+		data.putDouble(data.limit() - 4 * Double.BYTES, 2);
+		assertRejected(data);
+	}
+
+	@Test
+	public void testTextRoundTrip() throws IOException
+	{
+		for (long seed = 0; seed < 20; seed++)
+		{
+			Sequence sequence = TestSequences.create(50, seed);
+			sequence.setInterpolation(InterpolationMode.values()[(int) (seed % InterpolationMode.values().length)]);
+			sequence.setConstantSpeed(seed % 2 == 0);
+			TestSequences.assertSameSequence(sequence, readText(writeText(sequence)));
+		}
+	}
+
+	@Test
+	public void testTextHeaderOmitsDefaults() throws IOException
+	{
+		Sequence sequence = TestSequences.create(3, 6);
+		String header = writeText(sequence).split("\n")[0];
+		assertEquals("3200,3264," + sequence.isPreserveLocation(), header);
+
+		sequence.setConstantSpeed(true);
+		header = writeText(sequence).split("\n")[0];
+		assertTrue(header, header.endsWith(",LINEAR,true"));
+	}
+
+	@Test
+	public void testTextReadsOldFiles() throws IOException
+	{
+		Sequence sequence = readText("3200,3264,TRUE\n"
+			+ "0,1.5,-2,3,0.25,1,512,LINEAR\n"
+			+ "1000,4,5,6,0.5,2,600,QUAD\n");
+		assertEquals(3200, sequence.getBaseX());
+		assertTrue(sequence.isPreserveLocation());
+		assertEquals(InterpolationMode.LINEAR, sequence.getInterpolation());
+		assertFalse(sequence.isConstantSpeed());
+		assertEquals(2, sequence.size());
+		assertEquals(1000, sequence.getTimestamp(1));
+		assertEquals(-2, sequence.getFocalY(0), 0);
+		assertEquals(EaseType.QUAD, sequence.getEase(1));
+	}
+
+	@Test
+	public void testTextSkipsMalformedKeyframes() throws IOException
+	{
+		Sequence sequence = readText("3200,3264,false,CATMULL_ROM,true\n"
+			+ "0,1,2,3,0.5,1,512,LINEAR\n"
+			+ "\n"
+			+ "100,1,2,3,0.5,1,512\n"
+			+ "200,1,2,3,0.5,1,512,LINEAR,extra\n"
+			+ "300,1,2,3,0.5,1,512,WOBBLE\n"
+			+ "400,x,2,3,0.5,1,512,LINEAR\n"
+			+ "500,1,2,3,0.5,1,99999999999,LINEAR\n"
+			+ "99999999999999999999,1,2,3,0.5,1,512,LINEAR\n"
+			+ "-,1,2,3,0.5,1,512,LINEAR\n"
+			+ "600,1,2,3,0.5,1,512,BEZIER,2,0,0.5,1\n"
+			+ "700,1,2,3,0.5,1,512,BEZIER,0.5,0\n"
+			+ "800,1,2,3,0.5,1,512,BEZIER,0.1,0.9,0.3,1.2\n");
+		assertEquals(InterpolationMode.CATMULL_ROM, sequence.getInterpolation());
+		assertTrue(sequence.isConstantSpeed());
+		assertEquals(2, sequence.size());
+		assertEquals(0, sequence.getTimestamp(0));
+		assertEquals(800, sequence.getTimestamp(1));
+		assertEquals(BezierEase.of(0.1, 0.9, 0.3, 1.2), sequence.getBezier(1));
+	}
+
+	@Test
+	public void testTextRejectsBadHeader()
+	{
+		assertHeaderRejected("");
+		assertHeaderRejected("3200,3264\n");
+		assertHeaderRejected("3200,3264,maybe\n");
+		assertHeaderRejected("3200.5,3264,true\n");
+		assertHeaderRejected("3200,3264,true,SMOOTH\n");
+		assertHeaderRejected("3200,3264,true,LINEAR,true,extra\n");
+		assertHeaderRejected("0,1.5,-2,3,0.25,1,512,LINEAR\n");
+	}
+
+	private static String writeText(Sequence sequence) throws IOException
+	{
+		StringWriter writer = new StringWriter();
+		SequenceIO.write(sequence, writer);
+		return writer.toString();
+	}
+
+	private static Sequence readText(String text) throws IOException
+	{
+		return SequenceIO.read(new BufferedReader(new StringReader(text)), HeadlessClient.create(), new HeadlessConfig(false));
+	}
+
+	private static void assertHeaderRejected(String text)
+	{
+		try
+		{
+			readText(text);
+			fail("accepted " + text);
+		}
+		catch (SequenceFormatException e)
+		{
+			assertEquals(1, e.getLine());
+		}
+		catch (IOException e)
+		{
+			fail(e.toString());
+		}
+	}
+
+	private static Sequence withoutBezier(Sequence sequence)
+	{
+		for (int i = 0; i < sequence.size(); i++)
+		{
+			if (sequence.getEase(i) == EaseType.BEZIER)
+			{
+				sequence.setEase(sequence.get(i), EaseType.LINEAR);
+			}
+		}
+		return sequence;
+	}
+
+	private static Sequence deserialize(ByteBuffer data) throws IOException
+	{
+		return SequenceIO.deserializeBinary(data, HeadlessClient.create(), new HeadlessConfig(false));
+	}
+
+	private static void assertRejected(ByteBuffer data)
+	{
+		try
+		{
+			deserialize(data.duplicate());
+			fail("accepted " + data.remaining() + " bytes");
+		}
+		catch (IOException e)
+		{
+			// expected
+		}
+	}
+}
@@ -0,0 +1,254 @@
+package com.keyframecamera;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+import javax.swing.SwingUtilities;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SequenceJournalTest
+{
+	private Path directory;
+	private ScheduledExecutorService executor;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		directory = Files.createTempDirectory("journal");
+		executor = Executors.newSingleThreadScheduledExecutor();
+	}
+
+	@After
+	public void tearDown() throws IOException
+	{
+		executor.shutdownNow();
+		try (Stream<Path> paths = Files.walk(directory))
+		{
+			paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	@Test
+	public void testNothingToRecover() throws IOException
+	{
+		assertNull(new SequenceJournal(directory, executor).recover(HeadlessClient.create(), new HeadlessConfig(false)));
+	}
+
+	@Test
+	public void testReplaysEveryKindOfEdit() throws Exception
+	{
+		Sequence sequence = TestSequences.create(20, 1);
+		SequenceJournal journal = new SequenceJournal(directory, executor);
+		journal.attach(sequence);
+
+		edit(sequence);
+		close(journal);
+
+		TestSequences.assertSameSequence(sequence, recover());
+	}
+
+	@Test
+	public void testTruncatedTailKeepsEarlierRecords() throws Exception
+	{
+		Sequence sequence = TestSequences.create(10, 2);
+		SequenceJournal journal = new SequenceJournal(directory, executor);
+		journal.attach(sequence);
+
+		edit(sequence);
+		Sequence beforeLastEdit = sequence.copy();
+		sequence.setKeyframeDuration(sequence.get(0), 1234);
+		close(journal);
+
+		// Cut the last record short, as a crash mid-write would
+		Path journalPath = directory.resolve(SequenceJournal.JOURNAL_NAME);
+		try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.WRITE))
+		{
+			channel.truncate(channel.size() - 3);
+		}
+
+		TestSequences.assertSameSequence(beforeLastEdit, recover());
+	}
+
+	@Test
+	public void testCorruptTailKeepsEarlierRecords() throws Exception
+	{
+		Sequence sequence = TestSequences.create(10, 3);
+		SequenceJournal journal = new SequenceJournal(directory, executor);
+		journal.attach(sequence);
+
+		edit(sequence);
+		close(journal);
+
+		Path journalPath = directory.resolve(SequenceJournal.JOURNAL_NAME);
+		Files.write(journalPath, new byte[]{99, 1, 2, 3}, StandardOpenOption.APPEND);
+
+		TestSequences.assertSameSequence(sequence, recover());
+	}
+
+	@Test
+	public void testJournalForAnotherSnapshotIsIgnored() throws Exception
+	{
+		Sequence sequence = TestSequences.create(10, 4);
+		SequenceJournal journal = new SequenceJournal(directory, executor);
+		journal.attach(sequence);
+
+		edit(sequence);
+		close(journal);
+
+		// A snapshot written after the journal, as if the crash came between the two
+		Sequence other = TestSequences.create(5, 5);
+		ByteBuffer data = SequenceIO.serializeBinary(other);
+		byte[] bytes = new byte[data.remaining()];
+		data.get(bytes);
+		Files.write(directory.resolve(SequenceJournal.SNAPSHOT_NAME), bytes);
+
+		TestSequences.assertSameSequence(other, recover());
+	}
+
+	@Test
+	public void testCompactionKeepsEdits() throws Exception
+	{
+		Sequence sequence = TestSequences.create(10, 6);
+		SequenceJournal journal = new SequenceJournal(directory, executor);
+		journal.attach(sequence);
+
+		// Enough records to outgrow the journal and compact several times
+		for (int i = 0; i < 5000; i++)
+		{
+			sequence.setKeyframeDuration(sequence.get(i % sequence.size()), i);
+		}
+		close(journal);
+
+		TestSequences.assertSameSequence(sequence, recover());
+	}
+
+	@Test
+	public void testEditsDuringSnapshotAreNotLost() throws Exception
+	{
+		Sequence sequence = TestSequences.create(10, 7);
+		SequenceJournal journal = new SequenceJournal(directory, executor);
+		journal.attach(sequence);
+
+		// Hold the I/O thread with a flush queued, then queue a snapshot behind
+		// it with an edit on either side
+		CountDownLatch release = new CountDownLatch(1);
+		executor.execute(() -> awaitQuietly(release));
+		executor.execute(journal::flush);
+		sequence.setKeyframeDuration(sequence.get(1), 111);
+		journal.attach(sequence);
+		sequence.setKeyframeDuration(sequence.get(2), 222);
+		sequence.remove(sequence.get(3));
+		release.countDown();
+
+		close(journal);
+
+		TestSequences.assertSameSequence(sequence, recover());
+	}
+
+	@Test
+	public void testFailedSnapshotIsRetried() throws Exception
+	{
+		// A directory where the snapshot's temporary file goes makes writing it fail
+		Path blocker = Files.createDirectory(directory.resolve(SequenceJournal.SNAPSHOT_NAME + ".tmp"));
+
+		Sequence sequence = TestSequences.create(10, 8);
+		SequenceJournal journal = new SequenceJournal(directory, executor);
+		// Edit on the EDT, as the panel does, so the retry can't run until the blocker is gone
+		SwingUtilities.invokeAndWait(() -> {
+			journal.attach(sequence);
+			edit(sequence);
+			awaitIdle();
+			assertTrue(Files.notExists(directory.resolve(SequenceJournal.SNAPSHOT_NAME)));
+			try
+			{
+				Files.delete(blocker);
+			}
+			catch (IOException e)
+			{
+				throw new UncheckedIOException(e);
+			}
+		});
+
+		// Let the EDT take the new snapshot and the I/O thread write it
+		SwingUtilities.invokeAndWait(() -> {});
+		awaitIdle();
+		assertTrue("snapshot was not retried", Files.exists(directory.resolve(SequenceJournal.SNAPSHOT_NAME)));
+		close(journal);
+
+		TestSequences.assertSameSequence(sequence, recover());
+	}
+
+	/**
+	 * One of each edit the journal records, plus a settings change.
+	 */
+	private static void edit(Sequence sequence)
+	{
+		sequence.add(sequence.getSequenceDuration() + 500, 1, 2, 3, 0.5, 1.5, 700, EaseType.LINEAR);
+		sequence.remove(sequence.get(2));
+		sequence.swap(sequence.get(0), sequence.get(3));
+		sequence.setKeyframeDuration(sequence.get(1), 4321);
+		sequence.setBezier(sequence.get(4), BezierEase.of(0.1, 0.9, 0.3, 1.2));
+		sequence.setEase(sequence.get(5), EaseType.LINEAR);
+		sequence.setInterpolation(InterpolationMode.CATMULL_ROM);
+		sequence.setConstantSpeed(true);
+		sequence.setBaseX(3300);
+		sequence.add(sequence.getSequenceDuration(), 4, 5, 6, 0.25, 3, 800, EaseType.BEZIER, BezierEase.of(0.5, 0, 0.5, 1));
+	}
+
+	private void close(SequenceJournal journal) throws InterruptedException
+	{
+		journal.close();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+		executor = Executors.newSingleThreadScheduledExecutor();
+	}
+
+	/**
+	 * Waits for everything already queued on the I/O executor.
+	 */
+	private void awaitIdle()
+	{
+		try
+		{
+			executor.submit(() -> {}).get(5, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException | ExecutionException | TimeoutException e)
+		{
+			throw new AssertionError(e);
+		}
+	}
+
+	private Sequence recover() throws IOException
+	{
+		return new SequenceJournal(directory, executor).recover(HeadlessClient.create(), new HeadlessConfig(false));
+	}
+
+	private static void awaitQuietly(CountDownLatch latch)
+	{
+		try
+		{
+			latch.await();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,20 @@
+package com.keyframecamera;
+
+/**
+ * A {@link PlaybackClock} that only moves when told to.
+ */
+class SimulatedClock implements PlaybackClock
+{
+	private long now;
+
+	@Override
+	public long nanoTime()
+	{
+		return now;
+	}
+
+	void advance(long nanos)
+	{
+		now += nanos;
+	}
+}
@@ -0,0 +1,73 @@
+package com.keyframecamera;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+public class SplineCoefficientsTest
+{
+	private static final double[] PARAMETERS = {0, 0.25, 0.5, 0.75, 1};
+
+	@Test
+	public void testEditsMatchFullRebuild()
+	{
+		for (InterpolationMode mode : new InterpolationMode[]{InterpolationMode.CATMULL_ROM, InterpolationMode.HERMITE})
+		{
+			Sequence sequence = TestSequences.create(40, mode.ordinal());
+			sequence.setInterpolation(mode);
+			TestSequences.editAndCheck(sequence, mode.ordinal(), 500, (edited, message) -> assertMatchesRebuild(edited, mode + " " + message));
+		}
+	}
+
+	@Test
+	public void testInterpolationChange()
+	{
+		Sequence sequence = TestSequences.create(20, 7);
+		sequence.setInterpolation(InterpolationMode.CATMULL_ROM);
+		assertMatchesRebuild(sequence, "catmull-rom");
+		sequence.setInterpolation(InterpolationMode.HERMITE);
+		assertMatchesRebuild(sequence, "hermite");
+	}
+
+	@Test
+	public void testSegmentsPassThroughKeyframes()
+	{
+		Sequence sequence = TestSequences.create(30, 8);
+		sequence.setInterpolation(InterpolationMode.CATMULL_ROM);
+		CameraSample sample = new CameraSample();
+		for (int i = 0; i + 1 < sequence.size(); i++)
+		{
+			sequence.position(i, 0, sample);
+			assertEquals("keyframe " + i, sequence.getFocalX(i), sample.getFocalX(), 1e-9);
+			assertEquals("keyframe " + i, sequence.getPitch(i), sample.getPitch(), 1e-9);
+			sequence.position(i, 1, sample);
+			assertEquals("keyframe " + (i + 1), sequence.getFocalX(i + 1), sample.getFocalX(), 1e-9);
+			assertEquals("keyframe " + (i + 1), sequence.getPitch(i + 1), sample.getPitch(), 1e-9);
+		}
+	}
+
+	/**
+	 * Evaluates every segment through the sequence's cached coefficients and
+	 * through a new set built from scratch; they should agree exactly.
+	 */
+	private static void assertMatchesRebuild(Sequence sequence, String message)
+	{
+		SplineCoefficients rebuilt = new SplineCoefficients();
+		CameraSample cached = new CameraSample();
+		CameraSample expected = new CameraSample();
+		for (int i = 0; i + 1 < sequence.size(); i++)
+		{
+			for (double u : PARAMETERS)
+			{
+				sequence.position(i, u, cached);
+				rebuilt.evaluate(sequence, i, u, expected);
+				String where = message + ", segment " + i + " at " + u;
+				assertEquals(where, expected.getFocalX(), cached.getFocalX(), 0);
+				assertEquals(where, expected.getFocalY(), cached.getFocalY(), 0);
+				assertEquals(where, expected.getFocalZ(), cached.getFocalZ(), 0);
+				assertEquals(where, expected.getPitch(), cached.getPitch(), 0);
+				assertEquals(where, expected.getYaw(), cached.getYaw(), 0);
+				assertEquals(where, expected.getScale(), cached.getScale());
+			}
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package com.keyframecamera;
+
+import java.util.Random;
+import java.util.function.BiConsumer;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Reproducible sequences for the tests, a comparison of everything a sequence
+ * saves, and random edits for checking the caches a sequence keeps.
+ */
+final class TestSequences
+{
+	private TestSequences()
+	{
+	}
+
+	static Sequence empty()
+	{
+		return new Sequence(HeadlessClient.create(), new HeadlessConfig(false));
+	}
+
+	/**
+	 * A sequence using every easing type, including Bezier curves, and some
+	 * cuts. The same size and seed always give the same keyframes.
+	 */
+	static Sequence create(int size, long seed)
+	{
+		Random random = new Random(seed);
+		Sequence sequence = empty();
+		sequence.setBaseX(3200);
+		sequence.setBaseZ(3264);
+		sequence.setPreserveLocation(random.nextBoolean());
+
+		EaseType[] eases = EaseType.values();
+		long timestamp = 0;
+		for (int i = 0; i < size; i++)
+		{
+			EaseType ease = eases[random.nextInt(eases.length)];
+			BezierEase curve = ease == EaseType.BEZIER
+				? BezierEase.of(random.nextDouble(), random.nextDouble() * 2 - 0.5, random.nextDouble(), random.nextDouble() * 2 - 0.5)
+				: null;
+			sequence.add(timestamp,
+				random.nextDouble() * 13312, random.nextDouble() * -1000, random.nextDouble() * 13312,
+				random.nextDouble() * Math.PI / 2, random.nextDouble() * 2 * Math.PI,
+				random.nextInt(1000), ease, curve);
+			timestamp += random.nextInt(8) == 0 ? 0 : 100 + random.nextInt(1900);
+		}
+		return sequence;
+	}
+
+	/**
+	 * Makes {@code edits} random edits of every kind, running {@code check}
+	 * before each one and after the last. Checking first samples the sequence,
+	 * so only the edit's own invalidation can bring its caches up to date.
+	 */
+	static void editAndCheck(Sequence sequence, long seed, int edits, BiConsumer<Sequence, String> check)
+	{
+		Random random = new Random(seed);
+		for (int i = 0; i < edits; i++)
+		{
+			check.accept(sequence, "edit " + i);
+			edit(sequence, random);
+		}
+		check.accept(sequence, "last edit");
+	}
+
+	private static void edit(Sequence sequence, Random random)
+	{
+		Keyframe keyframe = sequence.get(random.nextInt(sequence.size()));
+		switch (random.nextInt(6))
+		{
+			case 0:
+				sequence.setKeyframeDuration(keyframe, random.nextInt(4) == 0 ? 0 : random.nextInt(2000));
+				break;
+			case 1:
+				int index = sequence.indexOf(keyframe);
+				sequence.restore(index, sequence.getKeyframeDuration(index),
+					random.nextDouble() * 13312, random.nextDouble() * -1000, random.nextDouble() * 13312,
+					random.nextDouble(), random.nextDouble() * 2 * Math.PI, random.nextInt(1000),
+					sequence.getEase(index), null);
+				break;
+			case 2:
+				sequence.swap(keyframe, sequence.get(random.nextInt(sequence.size())));
+				break;
+			case 3:
+				if (sequence.size() > 3)
+				{
+					sequence.remove(keyframe);
+				}
+				break;
+			case 4:
+				sequence.duplicate(keyframe);
+				break;
+			default:
+				sequence.add(sequence.getSequenceDuration() + random.nextInt(2000),
+					random.nextDouble() * 13312, 0, random.nextDouble() * 13312,
+					random.nextDouble(), random.nextDouble() * 2 * Math.PI, random.nextInt(1000), EaseType.LINEAR);
+				break;
+		}
+	}
+
+	static void assertSameSequence(Sequence expected, Sequence actual)
+	{
+		assertEquals("base x", expected.getBaseX(), actual.getBaseX());
+		assertEquals("base z", expected.getBaseZ(), actual.getBaseZ());
+		assertEquals("preserve location", expected.isPreserveLocation(), actual.isPreserveLocation());
+		assertEquals("interpolation", expected.getInterpolation(), actual.getInterpolation());
+		assertEquals("constant speed", expected.isConstantSpeed(), actual.isConstantSpeed());
+		assertEquals("size", expected.size(), actual.size());
+
+		for (int i = 0; i < expected.size(); i++)
+		{
+			String keyframe = "keyframe " + i + " ";
+			assertEquals(keyframe + "timestamp", expected.getTimestamp(i), actual.getTimestamp(i));
+			assertEquals(keyframe + "focal x", expected.getFocalX(i), actual.getFocalX(i), 0);
+			assertEquals(keyframe + "focal y", expected.getFocalY(i), actual.getFocalY(i), 0);
+			assertEquals(keyframe + "focal z", expected.getFocalZ(i), actual.getFocalZ(i), 0);
+			assertEquals(keyframe + "pitch", expected.getPitch(i), actual.getPitch(i), 0);
+			assertEquals(keyframe + "yaw", expected.getYaw(i), actual.getYaw(i), 0);
+			assertEquals(keyframe + "scale", expected.getScale(i), actual.getScale(i));
+			assertEquals(keyframe + "ease", expected.getEase(i), actual.getEase(i));
+			// Only saved while the keyframe uses it
+			if (expected.getEase(i) == EaseType.BEZIER)
+			{
+				assertEquals(keyframe + "curve", expected.getBezier(i), actual.getBezier(i));
+			}
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package com.keyframecamera;
+
+import com.keyframecamera.panel.TimelinePanel;
+import java.awt.event.MouseEvent;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TimelinePanelTest
+{
+	private static final int WIDTH = 1000;
+
+	@Test
+	public void testRetimeFollowsPointer()
+	{
+		assertMarkersFollowPointer(false);
+	}
+
+	@Test
+	public void testRetimeFollowsPointerAtConstantSpeed()
+	{
+		assertMarkersFollowPointer(true);
+	}
+
+	private static void assertMarkersFollowPointer(boolean constantSpeed)
+	{
+		Sequence sequence = TestSequences.create(20, 3);
+		sequence.setInterpolation(InterpolationMode.LINEAR);
+		sequence.setConstantSpeed(constantSpeed);
+		TimelinePanel panel = panel(sequence);
+
+		int dragged = 0;
+		for (int i = 1; i < sequence.size(); i++)
+		{
+			int x = markerX(sequence, i);
+			// Only markers that can be grabbed on their own
+			if (sequence.getKeyframeDuration(i - 1) == 0 || x - markerX(sequence, i - 1) < 10 || x > WIDTH - 20
+				|| i + 1 < sequence.size() && markerX(sequence, i + 1) - x < 10)
+			{
+				continue;
+			}
+
+			// The view keeps its scale until the drag ends
+			double msPerPixel = (double) sequence.getSequenceDuration() / WIDTH;
+			mouse(panel, MouseEvent.MOUSE_PRESSED, x);
+			for (int target : new int[]{x + 4, x + 12, x + 7, x})
+			{
+				mouse(panel, MouseEvent.MOUSE_DRAGGED, target);
+				assertEquals("keyframe " + i + " dragged to " + target, target * msPerPixel, sequence.getPlaybackTimestamp(i), 1);
+			}
+			mouse(panel, MouseEvent.MOUSE_RELEASED, x);
+			dragged++;
+		}
+		assertTrue(dragged > 5);
+	}
+
+	private static TimelinePanel panel(Sequence sequence)
+	{
+		HeadlessPlugin plugin = new HeadlessPlugin();
+		plugin.setSequence(sequence);
+		Playback playback = new Playback(plugin, new HeadlessConfig(false), HeadlessClient.create(), new HeadlessClientThread(), new SimulatedClock());
+		TimelinePanel panel = new TimelinePanel(plugin, playback);
+		panel.setSize(WIDTH, 32);
+		return panel;
+	}
+
+	private static int markerX(Sequence sequence, int index)
+	{
+		return (int) (sequence.getPlaybackTimestamp(index) * WIDTH / sequence.getSequenceDuration());
+	}
+
+	private static void mouse(TimelinePanel panel, int id, int x)
+	{
+		panel.dispatchEvent(new MouseEvent(panel, id, 0, 0, x, 16, 1, false, MouseEvent.BUTTON1));
+	}
+}